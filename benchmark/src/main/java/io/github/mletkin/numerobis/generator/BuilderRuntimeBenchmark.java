@@ -0,0 +1,285 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+
+/**
+ * Measures the runtime cost of generated builders.
+ * <ul>
+ * <li>the builder is generated with the {@link Facade} from a fixed product
+ * class and compiled in the trial setup
+ * <li>covers each list mutator and adder variant
+ * <li>covers embedded and separate builders, factory methods and constructors
+ * <li>a hand-written builder with the same methods is the baseline
+ * </ul>
+ * Each benchmark invocation creates a builder, sets the simple fields, applies
+ * the operation and builds the product. The calls are made from a driver class
+ * that is compiled with the builder, so the builder is called directly and not
+ * by reflection. Run with {@code -prof gc} for allocation rates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BuilderRuntimeBenchmark {
+
+    private static final ListMutatorVariant[] MUTATOR_VARIANTS = { ListMutatorVariant.OBJECT,
+            ListMutatorVariant.VARARG, ListMutatorVariant.STREAM, ListMutatorVariant.COLLECTION };
+    private static final ListMutatorVariant[] ADDER_VARIANTS = { ListMutatorVariant.ITEM, ListMutatorVariant.VARARG,
+            ListMutatorVariant.STREAM, ListMutatorVariant.COLLECTION };
+
+    /**
+     * Builder creation and location.
+     */
+    public enum Shape {
+        CONSTRUCTOR_EMBEDDED("Product.Builder", "new Product.Builder()"), //
+        CONSTRUCTOR_SEPARATE("ProductBuilder", "new ProductBuilder()"), //
+        FACTORY_EMBEDDED("Product.Builder", "Product.Builder.of()"), //
+        FACTORY_SEPARATE("ProductBuilder", "ProductBuilder.of()"), //
+        HAND_WRITTEN("HandWrittenProduct.Builder", "new HandWrittenProduct.Builder()");
+
+        private final String builderType;
+        private final String creation;
+
+        Shape(String builderType, String creation) {
+            this.builderType = builderType;
+            this.creation = creation;
+        }
+
+        boolean factory() {
+            return this == FACTORY_EMBEDDED || this == FACTORY_SEPARATE;
+        }
+
+        boolean embedded() {
+            return this == CONSTRUCTOR_EMBEDDED || this == FACTORY_EMBEDDED;
+        }
+    }
+
+    /**
+     * Builder method applied after setting the simple fields.
+     */
+    public enum Operation {
+        SIMPLE(""), //
+        MUTATOR_OBJECT("builder.withItems(in.list);"), //
+        MUTATOR_VARARG("builder.withItems(in.array);"), //
+        MUTATOR_STREAM("builder.withItems(in.list.stream());"), //
+        MUTATOR_COLLECTION("builder.withItems(in.collection);"), //
+        ADDER_ITEM("for (String item : in.array) { builder.addItem(item); }"), //
+        ADDER_VARARG("builder.addItem(in.array);"), //
+        ADDER_STREAM("builder.addItem(in.list.stream());"), //
+        ADDER_COLLECTION("builder.addItem(in.collection);");
+
+        private final String statement;
+
+        Operation(String statement) {
+            this.statement = statement;
+        }
+    }
+
+    /**
+     * Values passed to the builder.
+     */
+    public static class Input {
+        public String name = "product";
+        public int count = 42;
+        public String[] array;
+        public List<String> list;
+        public Collection<String> collection;
+
+        Input(int items) {
+            list = new ArrayList<>();
+            for (int n = 0; n < items; n++) {
+                list.add("item" + n);
+            }
+            array = list.toArray(new String[0]);
+            collection = list;
+        }
+    }
+
+    @Param
+    public Shape shape;
+
+    @Param
+    public Operation operation;
+
+    @Param({ "10" })
+    public int items;
+
+    private Path dir;
+    private URLClassLoader loader;
+    private Function<Input, Object> driver;
+    private Input input;
+
+    @Setup(Level.Trial)
+    public void compileBuilder() throws IOException, ReflectiveOperationException {
+        dir = Files.createTempDirectory("numerobis-runtime");
+        Path src = Files.createDirectories(dir.resolve("src/bench"));
+        Path classes = Files.createDirectories(dir.resolve("classes"));
+
+        List<String> files = new ArrayList<>();
+        if (shape != Shape.HAND_WRITTEN) {
+            generate(src).forEach(p -> files.add(p.toString()));
+        }
+        files.add(write(src.resolve("Driver.java"), driverSource()).toString());
+        compile(classes, files);
+
+        loader = new URLClassLoader(new URL[] { classes.toUri().toURL() }, getClass().getClassLoader());
+        driver = driver(loader.loadClass("bench.Driver"));
+        input = new Input(items);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        loader.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public Object build() {
+        return driver.apply(input);
+    }
+
+    private List<Path> generate(Path src) throws IOException {
+        Facade facade = new Facade(false) //
+                .withMutatorVariants(MUTATOR_VARIANTS) //
+                .withAdderVariants(ADDER_VARIANTS);
+        CompilationUnit productUnit = StaticJavaParser.parse(productSource());
+        List<Path> files = new ArrayList<>();
+        if (shape.embedded()) {
+            if (shape.factory()) {
+                facade.withFactoryMethods(productUnit, "Product");
+            } else {
+                facade.withConstructors(productUnit, "Product");
+            }
+        } else {
+            CompilationUnit builderUnit = new CompilationUnit();
+            if (shape.factory()) {
+                facade.withFactoryMethods(productUnit, "Product", builderUnit);
+            } else {
+                facade.withConstructors(productUnit, "Product", builderUnit);
+            }
+            files.add(write(src.resolve("ProductBuilder.java"), builderUnit.toString()));
+        }
+        files.add(write(src.resolve("Product.java"), productUnit.toString()));
+        return files;
+    }
+
+    private static void compile(Path classes, List<String> files) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("the benchmark needs a JDK with a java compiler");
+        }
+        List<String> args = new ArrayList<>();
+        args.add("-d");
+        args.add(classes.toString());
+        args.add("-cp");
+        args.add(System.getProperty("java.class.path"));
+        args.addAll(files);
+        if (compiler.run(null, null, null, args.toArray(new String[0])) != 0) {
+            throw new IllegalStateException("compilation failed: " + files);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Input, Object> driver(Class<?> driverClass) throws ReflectiveOperationException {
+        return (Function<Input, Object>) driverClass.getDeclaredConstructor().newInstance();
+    }
+
+    private static Path write(Path file, String content) throws IOException {
+        return Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates the source of the product class.
+     *
+     * @return java source code
+     */
+    static String productSource() {
+        return new StringBuilder() //
+                .append("package bench;\n\n") //
+                .append("import java.util.ArrayList;\n") //
+                .append("import java.util.List;\n") //
+                .append("import io.github.mletkin.numerobis.annotation.GenerateBuilder;\n\n") //
+                .append("@GenerateBuilder\n") //
+                .append("public class Product {\n") //
+                .append("    String name;\n") //
+                .append("    int count;\n") //
+                .append("    List<String> items = new ArrayList<>();\n") //
+                .append("}\n") //
+                .toString();
+    }
+
+    /**
+     * Creates the source of the driver class that calls the builder.
+     *
+     * @return java source code
+     */
+    String driverSource() {
+        return new StringBuilder() //
+                .append("package bench;\n\n") //
+                .append("import java.util.function.Function;\n") //
+                .append("import io.github.mletkin.numerobis.generator.BuilderRuntimeBenchmark.Input;\n") //
+                .append("import io.github.mletkin.numerobis.generator.HandWrittenProduct;\n\n") //
+                .append("public final class Driver implements Function<Input, Object> {\n") //
+                .append("    @Override\n") //
+                .append("    public Object apply(Input in) {\n") //
+                .append("        ").append(shape.builderType).append(" builder = ").append(shape.creation).append(";\n") //
+                .append("        builder.withName(in.name).withCount(in.count);\n") //
+                .append("        ").append(operation.statement).append("\n") //
+                .append("        return builder.build();\n") //
+                .append("    }\n") //
+                .append("}\n") //
+                .toString();
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.generator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Product with a hand-written builder, the baseline for the generated
+ * builders.
+ * <p>
+ * The builder collects the values and creates the product in the build
+ * method. It provides the same methods as the generated builders.
+ */
+public class HandWrittenProduct {
+
+    private final String name;
+    private final int count;
+    private final List<String> items;
+
+    private HandWrittenProduct(Builder builder) {
+        this.name = builder.name;
+        this.count = builder.count;
+        this.items = builder.items;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public List<String> items() {
+        return items;
+    }
+
+    /**
+     * Hand-written builder.
+     */
+    public static class Builder {
+
+        private String name;
+        private int count;
+        private List<String> items = new ArrayList<>();
+
+        public Builder withName(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder withCount(int count) {
+            this.count = count;
+            return this;
+        }
+
+        public Builder withItems(List<String> items) {
+            this.items = items;
+            return this;
+        }
+
+        public Builder withItems(String... items) {
+            this.items = new ArrayList<>(Arrays.asList(items));
+            return this;
+        }
+
+        public Builder withItems(Stream<String> items) {
+            this.items = items.collect(Collectors.toList());
+            return this;
+        }
+
+        public Builder withItems(Collection<String> items) {
+            this.items = new ArrayList<>(items);
+            return this;
+        }
+
+        public Builder addItem(String item) {
+            items.add(item);
+            return this;
+        }
+
+        public Builder addItem(String... items) {
+            Collections.addAll(this.items, items);
+            return this;
+        }
+
+        public Builder addItem(Stream<String> items) {
+            items.forEach(this.items::add);
+            return this;
+        }
+
+        public Builder addItem(Collection<String> items) {
+            this.items.addAll(items);
+            return this;
+        }
+
+        public HandWrittenProduct build() {
+            return new HandWrittenProduct(this);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.generator.common;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.type.Type;
+
+/**
+ * Microbenchmarks of the {@link ClassUtil} helpers and the
+ * {@link TypeResolver} used in the generator loops.
+ * <ul>
+ * <li>{@code allMember}, {@code matchesParameter} and
+ * {@code hasSingleParameter} run on classes with a growing number of members
+ * and a chain of nested classes with the same number of members
+ * <li>{@code matchesParameter} and {@code hasSingleParameter} search for a
+ * method that does not exist, so every method of the class is checked
+ * <li>{@code extendsInterface} runs with a resolvable import, an import that
+ * can not be loaded and a type without import
+ * <li>{@code extendsInterface} uses a resolver that is shared by all calls, as
+ * in a run of the plugin, {@code extendsInterfaceEmptyCache} uses a new
+ * resolver for each call
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassUtilBenchmark {
+
+    /**
+     * Product class with fields, methods and nested classes.
+     */
+    @State(Scope.Benchmark)
+    public static class Members {
+
+        @Param({ "10", "100", "1000" })
+        public int members;
+
+        @Param({ "0", "10" })
+        public int depth;
+
+        ClassOrInterfaceDeclaration product;
+        MethodDeclaration probe;
+        Type probeType;
+
+        @Setup(Level.Trial)
+        public void parse() {
+            CompilationUnit unit = StaticJavaParser.parse(source(members, depth));
+            product = ClassUtil.findClass(unit, "Product").get();
+            probe = StaticJavaParser.parseMethodDeclaration("void withMissing(String missing) {}");
+            probeType = probe.getParameter(0).getType();
+        }
+    }
+
+    /**
+     * Field type with and without import and the resolver shared by all calls.
+     */
+    @State(Scope.Benchmark)
+    public static class Imports {
+
+        /**
+         * The kind of import for the field type.
+         */
+        public enum Resolution {
+            RESOLVABLE("import java.util.List;\n", "List<String>"), //
+            NOT_LOADABLE("import com.example.List;\n", "List<String>"), //
+            NOT_IMPORTED("", "Missing");
+
+            private final String importDeclaration;
+            private final String type;
+
+            Resolution(String importDeclaration, String type) {
+                this.importDeclaration = importDeclaration;
+                this.type = type;
+            }
+        }
+
+        @Param
+        public Resolution resolution;
+
+        CompilationUnit unit;
+        FieldDeclaration field;
+        TypeResolver resolver;
+
+        @Setup(Level.Trial)
+        public void parse() {
+            unit = StaticJavaParser.parse(new StringBuilder() //
+                    .append("package bench;\n\n") //
+                    .append("import java.util.ArrayList;\n") //
+                    .append("import java.util.Map;\n") //
+                    .append("import java.util.Set;\n") //
+                    .append(resolution.importDeclaration) //
+                    .append("import io.github.mletkin.numerobis.annotation.GenerateBuilder;\n\n") //
+                    .append("@GenerateBuilder\n") //
+                    .append("public class Product {\n") //
+                    .append("    ").append(resolution.type).append(" items;\n") //
+                    .append("}\n") //
+                    .toString());
+            field = unit.findFirst(FieldDeclaration.class).get();
+            resolver = TypeResolver.defaultResolver();
+        }
+    }
+
+    @Benchmark
+    public long allMember(Members state) {
+        return ClassUtil.allMember(state.product, MethodDeclaration.class).count();
+    }
+
+    @Benchmark
+    public boolean matchesParameter(Members state) {
+        return ClassUtil.allMember(state.product, MethodDeclaration.class) //
+                .anyMatch(md -> ClassUtil.matchesParameter(md, state.probe));
+    }
+
+    @Benchmark
+    public boolean hasSingleParameter(Members state) {
+        return ClassUtil.allMember(state.product, MethodDeclaration.class) //
+                .anyMatch(ClassUtil.hasSingleParameter(state.probeType));
+    }
+
+    @Benchmark
+    public boolean extendsInterface(Imports state) {
+        return state.resolver.extendsInterface(state.field.getElementType(), Collection.class, state.unit);
+    }
+
+    @Benchmark
+    public boolean extendsInterfaceEmptyCache(Imports state) {
+        return TypeResolver.defaultResolver().extendsInterface(state.field.getElementType(), Collection.class,
+                state.unit);
+    }
+
+    /**
+     * Creates the source of a product class.
+     *
+     * @param members
+     *            number of fields and number of methods of each class
+     * @param depth
+     *            number of nested classes
+     * @return java source code
+     */
+    static String source(int members, int depth) {
+        StringBuilder src = new StringBuilder("package bench;\n\n");
+        for (int level = 0; level <= depth; level++) {
+            String name = level == 0 ? "Product" : "Nested" + level;
+            src.append(level == 0 ? "public class " : "public static class ").append(name).append(" {\n");
+            for (int n = 0; n < members; n++) {
+                src.append("    int field").append(n).append(";\n");
+                src.append("    public ").append(name).append(" withField").append(n) //
+                        .append("(int value) {\n        field").append(n).append(" = value;\n") //
+                        .append("        return this;\n    }\n");
+            }
+        }
+        for (int level = 0; level <= depth; level++) {
+            src.append("}\n");
+        }
+        return src.toString();
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end benchmark of {@code Processor.process}.
+ * <ul>
+ * <li>covers all combinations of builder creation and location
+ * <li>the builder is either generated from scratch or merged into the result
+ * of a previous run
+ * <li>products are either small or have many fields, collections and
+ * constructors
+ * </ul>
+ * The files are restored before each invocation, a single invocation takes
+ * milliseconds so the restore does not distort the measurement. Run with
+ * {@code -prof gc} for allocation rates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ProcessorBenchmark {
+
+    /**
+     * Whether the builder exists before the processing.
+     */
+    public enum Builder {
+        NEW, EXISTING
+    }
+
+    /**
+     * Shape of the product class.
+     */
+    public enum Product {
+        SMALL(3, 0, 1), FIELD_HEAVY(60, 10, 3);
+
+        private final int fields;
+        private final int collections;
+        private final int constructors;
+
+        Product(int fields, int collections, int constructors) {
+            this.fields = fields;
+            this.collections = collections;
+            this.constructors = constructors;
+        }
+    }
+
+    @Param({ "CONSTRUCTOR", "FACTORY" })
+    public String creation;
+
+    @Param({ "EMBEDDED", "SEPARATE" })
+    public String location;
+
+    @Param
+    public Builder builder;
+
+    @Param
+    public Product product;
+
+    private Path dir;
+    private Path productFile;
+    private Path builderFile;
+    private byte[] productContent;
+    private byte[] builderContent;
+    private MojoSettings settings;
+    private Processor processor;
+
+    @Setup(Level.Trial)
+    public void createFiles() throws IOException {
+        dir = Files.createTempDirectory("numerobis-bench");
+        productFile = dir.resolve("Product.java");
+        builderFile = dir.resolve("ProductBuilder.java");
+        settings = new MojoSettings.Builder() //
+                .withBuilderCreation(BuilderMojo.Creation.valueOf(creation)) //
+                .withBuilderLocation(BuilderMojo.Location.valueOf(location)) //
+                .withNamingSettings(Naming.DEFAULT) //
+                .build();
+
+        String source = source(product);
+        Files.write(productFile, source.getBytes(StandardCharsets.UTF_8));
+        if (builder == Builder.EXISTING) {
+            new Processor(settings).process(productFile.toFile());
+            if (settings.builderLocation() == BuilderMojo.Location.EMBEDDED) {
+                // the annotation is removed with the generation of an embedded builder
+                source = new String(Files.readAllBytes(productFile), StandardCharsets.UTF_8) //
+                        .replace("public class Product", "@GenerateBuilder\npublic class Product");
+                Files.write(productFile, source.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        productContent = Files.readAllBytes(productFile);
+        builderContent = Files.exists(builderFile) ? Files.readAllBytes(builderFile) : null;
+    }
+
+    /**
+     * Restores the files and creates a new processor, the processor keeps the
+     * metrics of all processed files.
+     *
+     * @throws IOException
+     *             if a file can not be written
+     */
+    @Setup(Level.Invocation)
+    public void restoreFiles() throws IOException {
+        processor = new Processor(settings);
+        Files.write(productFile, productContent);
+        if (builderContent == null) {
+            Files.deleteIfExists(builderFile);
+        } else {
+            Files.write(builderFile, builderContent);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public List<Path> process() {
+        return processor.process(productFile.toFile());
+    }
+
+    /**
+     * Creates the source of a product class.
+     *
+     * @param shape
+     *            shape of the product
+     * @return java source code
+     */
+    static String source(Product shape) {
+        StringBuilder src = new StringBuilder() //
+                .append("package bench;\n\n") //
+                .append("import java.util.List;\n") //
+                .append("import java.util.Set;\n") //
+                .append("import io.github.mletkin.numerobis.annotation.GenerateBuilder;\n\n") //
+                .append("@GenerateBuilder\n") //
+                .append("public class Product {\n");
+        for (int n = 0; n < shape.fields; n++) {
+            src.append("    ").append(n % 2 == 0 ? "int" : "String").append(" field").append(n).append(";\n");
+        }
+        for (int n = 0; n < shape.collections; n++) {
+            src.append("    ").append(n % 2 == 0 ? "List<String>" : "Set<Integer>").append(" items").append(n)
+                    .append(";\n");
+        }
+        for (int n = 0; n < shape.constructors; n++) {
+            src.append("    public Product(");
+            for (int p = 0; p < n; p++) {
+                src.append(p == 0 ? "" : ", ").append("int arg").append(p);
+            }
+            src.append(") {\n    }\n");
+        }
+        return src.append("}\n").toString();
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * Writes the fixture sources and records the start of the build.
+ */
+import io.github.mletkin.numerobis.corpus.CorpusGenerator
+
+def files = new CorpusGenerator() //
+        .withPackages(packages as int) //
+        .withClassesPerPackage(classesPerPackage as int) //
+        .withSeed(seed as long) //
+        .write(new File(basedir, 'src/main/java').toPath())
+println "performance test: ${files.size()} fixture files written"
+
+new File(basedir, 'build.start').text = System.currentTimeMillis() as String
+return true
@@ -0,0 +1,35 @@
+/**
+ * Checks wall time and peak heap of the build against the budgets and writes
+ * the results to the result file.
+ */
+import groovy.json.JsonSlurper
+
+long wallMillis = System.currentTimeMillis() - (new File(basedir, 'build.start').text as long)
+def report = new JsonSlurper().parse(new File(basedir, 'target/numerobis/report.json'))
+long peakHeapMegabytes = (report.totals.peakHeapBytes as long) >> 20
+
+def results = new LinkedHashMap()
+results.filesScanned = report.totals.filesScanned
+results.products = report.products.size()
+results.filesWritten = report.totals.filesWritten
+results.wallMillis = wallMillis
+results.processMillis = report.totals.processMillis
+results.peakHeapMegabytes = peakHeapMegabytes
+results.allocatedMegabytes = (report.totals.allocatedBytes as long) >> 20
+results.maxWallMillis = maxWallMillis as long
+results.maxPeakHeapMegabytes = maxPeakHeapMegabytes as long
+
+def file = new File(resultFile)
+file.parentFile.mkdirs()
+file.text = results.collect { k, v -> "${k}=${v}" }.join('\n') + '\n'
+println "performance test: ${results}"
+
+def violations = []
+if (wallMillis > (maxWallMillis as long)) {
+    violations << "wall time ${wallMillis} ms exceeds the budget of ${maxWallMillis} ms"
+}
+if (peakHeapMegabytes > (maxPeakHeapMegabytes as long)) {
+    violations << "peak heap ${peakHeapMegabytes} MB exceeds the budget of ${maxPeakHeapMegabytes} MB"
+}
+violations.each { println "performance test: ${it}" }
+return violations.isEmpty()
@@ -0,0 +1,85 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.common;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads the number of bytes allocated by the current thread.
+ * <p>
+ * Uses the {@code com.sun.management} extension of the thread bean. On
+ * runtimes without the extension or with disabled allocation measurement no
+ * value is available.
+ */
+public final class ThreadAllocation {
+
+    /**
+     * Value returned if the allocation can not be measured.
+     */
+    public static final long UNAVAILABLE = -1;
+
+    private static final ThreadMXBean BEAN = ManagementFactory.getThreadMXBean();
+    private static final boolean SUPPORTED = isSupported();
+
+    private ThreadAllocation() {
+        // static access only
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread since its start.
+     *
+     * @return the number of bytes or {@link #UNAVAILABLE}
+     */
+    public static long current() {
+        return SUPPORTED ? Extension.allocatedBytes(BEAN) : UNAVAILABLE;
+    }
+
+    /**
+     * Checks whether the allocation of a thread can be measured.
+     *
+     * @return {@code true} if allocated bytes are available
+     */
+    public static boolean supported() {
+        return SUPPORTED;
+    }
+
+    private static boolean isSupported() {
+        try {
+            return Extension.isEnabled(BEAN);
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Access to the extension, only loaded if the class exists.
+     */
+    private static final class Extension {
+
+        static boolean isEnabled(ThreadMXBean bean) {
+            if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+                return false;
+            }
+            com.sun.management.ThreadMXBean extension = (com.sun.management.ThreadMXBean) bean;
+            return extension.isThreadAllocatedMemorySupported() && extension.isThreadAllocatedMemoryEnabled();
+        }
+
+        static long allocatedBytes(ThreadMXBean bean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+}
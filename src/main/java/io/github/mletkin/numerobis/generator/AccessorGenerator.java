@@ -17,7 +17,6 @@ package io.github.mletkin.numerobis.generator;
 
 import static io.github.mletkin.numerobis.common.Util.exists;
 import static io.github.mletkin.numerobis.common.Util.ifNotThrow;
-import static io.github.mletkin.numerobis.generator.common.ClassUtil.allMember;
 import static io.github.mletkin.numerobis.generator.common.GenerationUtil.methodCall;
 import static io.github.mletkin.numerobis.generator.common.GenerationUtil.nameExpr;
 import static io.github.mletkin.numerobis.generator.common.GenerationUtil.returnStmt;
@@ -27,16 +26,16 @@ import java.util.stream.Stream;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.Modifier;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
-import com.github.javaparser.ast.body.FieldDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.type.Type;
 
 import io.github.mletkin.numerobis.annotation.GenerateAccessors;
-import io.github.mletkin.numerobis.annotation.Ignore;
 import io.github.mletkin.numerobis.common.Util;
 import io.github.mletkin.numerobis.generator.common.ClassUtil;
 import io.github.mletkin.numerobis.generator.common.GenerationUtil;
+import io.github.mletkin.numerobis.generator.common.MemberIndex;
 import io.github.mletkin.numerobis.generator.common.StringExtractor;
+import io.github.mletkin.numerobis.generator.common.TypeResolver;
 
 /**
  * Generates access methods for a product class.
@@ -45,34 +44,38 @@ public class AccessorGenerator {
 
     private CompilationUnit unit;
     private ClassOrInterfaceDeclaration clazz;
+    private MemberIndex members;
     private String prefix;
+    private TypeResolver typeResolver = TypeResolver.defaultResolver();
 
     AccessorGenerator(CompilationUnit unit, String className) {
         this.unit = unit;
         this.clazz = ClassUtil.findClass(unit, className).orElse(null);
         this.prefix = new StringExtractor(GenerateAccessors.class, "prefix").value(clazz).orElse("");
+        this.members = new MemberIndex(clazz);
 
         ifNotThrow(className != null, GeneratorException::productClassNotFound);
     }
 
+    AccessorGenerator withTypeResolver(TypeResolver typeResolver) {
+        this.typeResolver = typeResolver;
+        return this;
+    }
+
     /**
      * Add an accessor for every variable in every field declaration.
      *
      * @return the generator instance
      */
     AccessorGenerator addAccessors() {
-        allMember(clazz, FieldDeclaration.class) //
-                .filter(this::process) //
-                .flatMap(fd -> new AccessorMethodDescriptor.Generator(fd, prefix, unit).stream()) //
+        FieldModel.of(clazz, unit, typeResolver).stream() //
+                .filter(Util.not(FieldModel::isIgnored)) //
+                .flatMap(field -> new AccessorMethodDescriptor.Generator(field, prefix).stream()) //
                 .filter(Util.not(this::hasAccessorMethod)) //
                 .forEach(this::addAccessor);
         return this;
     }
 
-    private boolean process(FieldDeclaration fd) {
-        return (!fd.isAnnotationPresent(Ignore.class));
-    }
-
     private void addAccessor(AccessorMethodDescriptor amd) {
         MethodDeclaration meth = clazz.addMethod(amd.methodName, Modifier.Keyword.PUBLIC);
         if (amd.streamAccessor) {
@@ -85,18 +88,16 @@ public class AccessorGenerator {
             meth.createBody() //
                     .addStatement(returnStmt(nameExpr(amd.fieldName)));
         }
+        members.add(meth);
     }
 
     private Type streamType(AccessorMethodDescriptor amd) {
-        Type argType = amd.fieldType.asClassOrInterfaceType().getTypeArguments().get().get(0);
-        return GenerationUtil.streamType(argType);
+        return GenerationUtil.streamType(amd.elementType);
     }
 
     private boolean hasAccessorMethod(AccessorMethodDescriptor amd) {
         return exists(//
-                allMember(clazz, MethodDeclaration.class) //
-                        .filter(md -> md.getNameAsString().equals(amd.methodName)) //
-                        .filter(md -> md.getParameters().isEmpty()) //
+                members.methodsWith(amd.methodName) //
                         .filter(md -> md.getType().equals(amd.streamAccessor ? streamType(amd) : amd.fieldType)));
     }
 
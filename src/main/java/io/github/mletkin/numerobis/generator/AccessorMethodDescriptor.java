@@ -17,13 +17,10 @@ package io.github.mletkin.numerobis.generator;
 
 import java.util.stream.Stream;
 
-import com.github.javaparser.ast.CompilationUnit;
-import com.github.javaparser.ast.body.FieldDeclaration;
 import com.github.javaparser.ast.body.VariableDeclarator;
 import com.github.javaparser.ast.type.Type;
 
 import io.github.mletkin.numerobis.common.Util;
-import io.github.mletkin.numerobis.generator.common.ClassUtil;
 
 /**
  * Describes an accessor method for a class.
@@ -32,16 +29,15 @@ class AccessorMethodDescriptor {
     String methodName;
     String fieldName;
     Type fieldType;
+    Type elementType;
     boolean streamAccessor;
 
     static class Generator {
-        FieldDeclaration field;
-        private CompilationUnit cu;
+        FieldModel field;
         private String prefix;
 
-        Generator(FieldDeclaration field, String prefix, CompilationUnit cu) {
+        Generator(FieldModel field, String prefix) {
             this.field = field;
-            this.cu = cu;
             this.prefix = prefix;
         }
 
@@ -51,7 +47,7 @@ class AccessorMethodDescriptor {
          * @return Stream<AccessorMethodDescriptor>
          */
         Stream<AccessorMethodDescriptor> stream() {
-            return field.getVariables().stream() //
+            return field.variables().stream() //
                     .map(this::map);
         }
 
@@ -60,7 +56,8 @@ class AccessorMethodDescriptor {
             result.methodName = methodName(vd);
             result.fieldName = vd.getNameAsString();
             result.fieldType = vd.getType();
-            result.streamAccessor = ClassUtil.isCollection(vd, cu);
+            result.elementType = field.elementType(vd).orElse(null);
+            result.streamAccessor = result.elementType != null;
             return result;
         }
 
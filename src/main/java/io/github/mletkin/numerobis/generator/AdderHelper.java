@@ -16,7 +16,6 @@
 package io.github.mletkin.numerobis.generator;
 
 import static io.github.mletkin.numerobis.common.Util.exists;
-import static io.github.mletkin.numerobis.generator.common.ClassUtil.allMember;
 import static io.github.mletkin.numerobis.generator.common.GenerationUtil.fieldAccess;
 import static io.github.mletkin.numerobis.generator.common.GenerationUtil.methodCall;
 import static io.github.mletkin.numerobis.generator.common.GenerationUtil.methodReference;
@@ -112,13 +111,13 @@ public class AdderHelper {
     }
 
     private boolean hasAdderMethod(AdderMethodDescriptor amd) {
+        Type parameterType = adderParameterType(amd);
         Predicate<CallableDeclaration<?>> parameterFilter = amd.variant.isVarArg() //
-                ? ClassUtil.hasSingleVarArgParameter(adderParameterType(amd))
-                : ClassUtil.hasSingleParameter(adderParameterType(amd));
+                ? ClassUtil.hasSingleVarArgParameter(parameterType)
+                : ClassUtil.hasSingleParameter(parameterType);
 
         return exists(//
-                allMember(owner.builderclass(), MethodDeclaration.class) //
-                        .filter(md -> md.getNameAsString().equals(amd.methodName)) //
+                owner.builderMembers().methodsWith(amd.methodName, parameterType) //
                         .filter(parameterFilter) //
                         .filter(md -> md.getType().equals(owner.builderClassType())));
     }
@@ -166,6 +165,7 @@ public class AdderHelper {
         MethodDeclaration meth = owner.builderclass().addMethod(amd.methodName, Modifier.Keyword.PUBLIC);
         meth.addAndGetParameter(adderParameterType(amd), parameterName).setVarArgs(amd.variant.isVarArg());
         meth.setType(owner.builderClassType());
+        owner.builderMembers().add(meth);
         return meth;
     }
 
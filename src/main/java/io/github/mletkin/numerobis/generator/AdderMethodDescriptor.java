@@ -18,15 +18,10 @@ package io.github.mletkin.numerobis.generator;
 import java.util.Optional;
 import java.util.stream.Stream;
 
-import com.github.javaparser.ast.CompilationUnit;
-import com.github.javaparser.ast.body.FieldDeclaration;
 import com.github.javaparser.ast.body.VariableDeclarator;
 import com.github.javaparser.ast.type.Type;
 
-import io.github.mletkin.numerobis.annotation.GenerateAdder;
 import io.github.mletkin.numerobis.common.Util;
-import io.github.mletkin.numerobis.generator.common.ClassUtil;
-import io.github.mletkin.numerobis.generator.common.VariantExtractor;
 
 /**
  * Descriptor for the generation of an adder for a collection field.
@@ -46,19 +41,16 @@ class AdderMethodDescriptor {
     static class Generator {
         private static ListMutatorVariant[] DEFAULT = { ListMutatorVariant.ITEM };
 
-        private FieldDeclaration field;
+        private FieldModel field;
         private ListMutatorVariant[] variants;
-        private CompilationUnit cu;
         private String adderPrefix;
 
-        Generator(FieldDeclaration field, ListMutatorVariant[] listMutatorVariant, CompilationUnit cu,
-                String adderPrefix) {
+        Generator(FieldModel field, ListMutatorVariant[] listMutatorVariant, String adderPrefix) {
             this.field = field;
             this.variants = Util.firstNotEmpty( //
-                    new VariantExtractor(GenerateAdder.class).variants(field), //
+                    field.adderVariants(), //
                     listMutatorVariant) //
                     .orElse(DEFAULT);
-            this.cu = cu;
             this.adderPrefix = adderPrefix;
         }
 
@@ -68,22 +60,23 @@ class AdderMethodDescriptor {
          * @return Stream<AdderMethodDescriptor>
          */
         Stream<AdderMethodDescriptor> stream() {
-            return field.getVariables().stream() //
-                    .filter(vd -> ClassUtil.isCollection(vd, cu)) //
+            return field.variables().stream() //
                     .flatMap(this::toVariants);
         }
 
         private Stream<AdderMethodDescriptor> toVariants(VariableDeclarator vd) {
-            return Stream.of(variants) //
-                    .filter(v -> v != ListMutatorVariant.NONE) //
-                    .map(v -> map(vd, v));
+            return field.elementType(vd) //
+                    .map(elementType -> Stream.of(variants) //
+                            .filter(v -> v != ListMutatorVariant.NONE) //
+                            .map(v -> map(vd, elementType, v)))
+                    .orElseGet(Stream::empty);
         }
 
-        private AdderMethodDescriptor map(VariableDeclarator vd, ListMutatorVariant variant) {
+        private AdderMethodDescriptor map(VariableDeclarator vd, Type elementType, ListMutatorVariant variant) {
             AdderMethodDescriptor result = new AdderMethodDescriptor();
             result.methodName = methodName(vd);
             result.fieldName = vd.getNameAsString();
-            result.parameterType = vd.getType().asClassOrInterfaceType().getTypeArguments().get().get(0);
+            result.parameterType = elementType;
             result.variant = variant;
             return result;
         }
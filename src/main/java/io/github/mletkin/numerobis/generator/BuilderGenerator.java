@@ -19,9 +19,6 @@ import static io.github.mletkin.numerobis.common.Util.exists;
 import static io.github.mletkin.numerobis.common.Util.ifNotThrow;
 import static io.github.mletkin.numerobis.common.Util.not;
 import static io.github.mletkin.numerobis.generator.common.ClassUtil.allMember;
-import static io.github.mletkin.numerobis.generator.common.ClassUtil.hasDefaultConstructor;
-import static io.github.mletkin.numerobis.generator.common.ClassUtil.hasExplicitConstructor;
-import static io.github.mletkin.numerobis.generator.common.ClassUtil.hasProductConstructor;
 import static io.github.mletkin.numerobis.generator.common.GenerationUtil.args;
 import static io.github.mletkin.numerobis.generator.common.GenerationUtil.assignExpr;
 import static io.github.mletkin.numerobis.generator.common.GenerationUtil.fieldAccess;
@@ -32,7 +29,6 @@ import static io.github.mletkin.numerobis.generator.common.GenerationUtil.thisEx
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.github.javaparser.ast.CompilationUnit;
@@ -40,7 +36,6 @@ import com.github.javaparser.ast.ImportDeclaration;
 import com.github.javaparser.ast.Modifier;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.body.ConstructorDeclaration;
-import com.github.javaparser.ast.body.FieldDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.body.VariableDeclarator;
 import com.github.javaparser.ast.type.ClassOrInterfaceType;
@@ -51,6 +46,8 @@ import io.github.mletkin.numerobis.annotation.Immutable;
 import io.github.mletkin.numerobis.annotation.Mutable;
 import io.github.mletkin.numerobis.generator.common.ClassUtil;
 import io.github.mletkin.numerobis.generator.common.GenerationUtil;
+import io.github.mletkin.numerobis.generator.common.MemberIndex;
+import io.github.mletkin.numerobis.generator.common.TypeResolver;
 import io.github.mletkin.numerobis.generator.mutator.ListMutatorDescriptorGenerator;
 import io.github.mletkin.numerobis.generator.mutator.MutatorDescriptorGenerator;
 import io.github.mletkin.numerobis.generator.mutator.MutatorMethodDescriptor;
@@ -72,9 +69,13 @@ public class BuilderGenerator {
     private ClassOrInterfaceDeclaration builderclass;
     private ClassOrInterfaceDeclaration productclass;
 
+    private MemberIndex builderMembers;
+    private MemberIndex productMembers;
+
     private AdderHelper adderHelper = new AdderHelper(this);
     private MutatorHelper mutatorHelper = new MutatorHelper(this);
     private Naming naming = Naming.DEFAULT;
+    private TypeResolver typeResolver = TypeResolver.defaultResolver();
 
     /**
      * Creates a generator for an product class.
@@ -89,7 +90,8 @@ public class BuilderGenerator {
         this.productUnit = productUnit;
 
         ifNotThrow(productclass != null, GeneratorException::productClassNotFound);
-        ifNotThrow(hasUsableConstructor(productclass), GeneratorException::noConstructorFound);
+        this.productMembers = new MemberIndex(productclass);
+        ifNotThrow(hasUsableConstructor(), GeneratorException::noConstructorFound);
     }
 
     BuilderGenerator withInternalBuilder() {
@@ -118,6 +120,11 @@ public class BuilderGenerator {
         return this;
     }
 
+    BuilderGenerator withTypeResolver(TypeResolver typeResolver) {
+        this.typeResolver = typeResolver;
+        return this;
+    }
+
     private void createPackageDeclaration() {
         if (!builderUnit.getPackageDeclaration().isPresent()) {
             productUnit.getPackageDeclaration().ifPresent(builderUnit::setPackageDeclaration);
@@ -140,6 +147,7 @@ public class BuilderGenerator {
                 .filter(not(ClassOrInterfaceDeclaration::isInterface)) //
                 .findFirst() //
                 .orElseGet(() -> builderUnit.addClass(productClassName() + naming.builderClassPostfix()));
+        this.builderMembers = new MemberIndex(builderclass);
     }
 
     private void createInternalBuilderClass() {
@@ -147,6 +155,7 @@ public class BuilderGenerator {
                 .filter(c -> c.getNameAsString().equals(naming.builderClassPostfix())) //
                 .findFirst()  //
                 .orElseGet(this::newInternalBuilderClass);
+        this.builderMembers = new MemberIndex(builderclass);
     }
 
     private ClassOrInterfaceDeclaration newInternalBuilderClass() {
@@ -167,7 +176,8 @@ public class BuilderGenerator {
      */
     BuilderGenerator addProductField() {
         if (!hasProductField()) {
-            builderclass.addField(productClassName(), naming.productField(), Modifier.Keyword.PRIVATE);
+            builderMembers.add(
+                    builderclass.addField(productClassName(), naming.productField(), Modifier.Keyword.PRIVATE));
         }
         return this;
     }
@@ -181,11 +191,7 @@ public class BuilderGenerator {
     }
 
     Optional<VariableDeclarator> findProductField() {
-        return allMember(builderclass, FieldDeclaration.class) //
-                .map(FieldDeclaration::getVariables) //
-                .flatMap(List::stream) //
-                .filter(vd -> vd.getNameAsString().equals(naming.productField())) //
-                .findFirst();
+        return builderMembers.variable(naming.productField());
     }
 
     /**
@@ -194,10 +200,10 @@ public class BuilderGenerator {
      * @return the generator instance
      */
     BuilderGenerator addConstructors() {
-        if (!hasExplicitConstructor(productclass) && !hasDefaultConstructor(builderclass)) {
+        if (!exists(productMembers.constructors()) && !exists(builderMembers.constructorsWith())) {
             addDefaultConstructor();
         }
-        allMember(productclass, ConstructorDeclaration.class) //
+        productMembers.constructors() //
                 .filter(this::process) //
                 .filter(not(this::hasMatchingConstructor)) //
                 .forEach(this::addMatchingConstructor);
@@ -208,17 +214,16 @@ public class BuilderGenerator {
     }
 
     private boolean hasManipulationConstructor() {
-        return exists(//
-                allMember(builderclass, ConstructorDeclaration.class) //
-                        .filter(ClassUtil.hasSingleParameter(productClassType())));
+        return exists(builderMembers.constructorsWith(productClassType()));
     }
 
     private void addManipulationConstructor() {
-        builderclass.addConstructor(Modifier.Keyword.PUBLIC) //
-                .addParameter(productClassType(), naming.productField()) //
-                .createBody() //
+        ConstructorDeclaration constructor = builderclass.addConstructor(Modifier.Keyword.PUBLIC) //
+                .addParameter(productClassType(), naming.productField());
+        constructor.createBody() //
                 .addStatement(
                         assignExpr(fieldAccess(thisExpr(), naming.productField()), nameExpr(naming.productField())));
+        builderMembers.add(constructor);
     }
 
     private boolean process(ConstructorDeclaration cd) {
@@ -232,9 +237,10 @@ public class BuilderGenerator {
     }
 
     private void addDefaultConstructor() {
-        builderclass.addConstructor(Modifier.Keyword.PUBLIC) //
-                .createBody() //
+        ConstructorDeclaration constructor = builderclass.addConstructor(Modifier.Keyword.PUBLIC);
+        constructor.createBody() //
                 .addStatement(assignExpr(naming.productField(), newExpr(productClassType())));
+        builderMembers.add(constructor);
     }
 
     private void addMatchingConstructor(ConstructorDeclaration productConstructor) {
@@ -242,11 +248,11 @@ public class BuilderGenerator {
         productConstructor.getParameters().stream().forEach(builderconstructor::addParameter);
         builderconstructor.createBody() //
                 .addStatement(assignExpr(naming.productField(), newExpr(productClassType(), args(productConstructor))));
+        builderMembers.add(builderconstructor);
     }
 
     private boolean hasMatchingConstructor(ConstructorDeclaration productConstructor) {
-        return allMember(builderclass, ConstructorDeclaration.class) //
-                .anyMatch(cd -> ClassUtil.matchesParameter(cd, productConstructor));
+        return exists(builderMembers.constructorsLike(productConstructor));
     }
 
     /**
@@ -255,16 +261,16 @@ public class BuilderGenerator {
      * @return the generator instance
      */
     BuilderGenerator addFactoryMethods() {
-        if (!hasProductConstructor(builderclass, productClassName())) {
+        if (!exists(builderMembers.constructorsWith(productClassType()))) {
             addProductConstructor();
         }
-        if (!hasExplicitConstructor(productclass) && !hasDefaultFactoryMethod()) {
+        if (!exists(productMembers.constructors()) && !hasDefaultFactoryMethod()) {
             addDefaultFactoryMethod();
         }
         if (isProductMutable() && !hasManipulationFactoryMethod()) {
             addManipulationFactoryMethod();
         }
-        allMember(productclass, ConstructorDeclaration.class) //
+        productMembers.constructors() //
                 .filter(this::process) //
                 .filter(not(this::hasMatchingFactoryMethod)) //
                 .forEach(this::addFactoryMethod);
@@ -274,11 +280,9 @@ public class BuilderGenerator {
 
     private boolean hasManipulationFactoryMethod() {
         return exists(//
-                allMember(builderclass, MethodDeclaration.class) //
+                builderMembers.methodsWith(naming.factoryMethod(), productClassType()) //
                         .filter(MethodDeclaration::isStatic) //
-                        .filter(md -> md.getNameAsString().equals(naming.factoryMethod())) //
-                        .filter(md -> md.getTypeAsString().equals(builderClassName())) //
-                        .filter(ClassUtil.hasSingleParameter(productClassType())));
+                        .filter(md -> md.getTypeAsString().equals(builderClassName())));
     }
 
     private void addManipulationFactoryMethod() {
@@ -288,6 +292,7 @@ public class BuilderGenerator {
         factoryMethod.addParameter(productClassName(), naming.productField());
         factoryMethod.createBody() //
                 .addStatement(returnStmt(newExpr(builderClassType(), nameExpr(naming.productField()))));
+        builderMembers.add(factoryMethod);
     }
 
     /**
@@ -301,15 +306,14 @@ public class BuilderGenerator {
         factoryMethod.setType(builderClassName());
         factoryMethod.createBody() //
                 .addStatement(returnStmt(newExpr(builderClassType(), newExpr(productClassType()))));
+        builderMembers.add(factoryMethod);
     }
 
     private boolean hasDefaultFactoryMethod() {
         return exists(//
-                allMember(builderclass, MethodDeclaration.class) //
+                builderMembers.methodsWith(naming.factoryMethod()) //
                         .filter(MethodDeclaration::isStatic) //
-                        .filter(md -> md.getNameAsString().equals(naming.factoryMethod())) //
-                        .filter(md -> md.getTypeAsString().equals(builderClassName())) //
-                        .filter(md -> md.getParameters().isEmpty()));
+                        .filter(md -> md.getTypeAsString().equals(builderClassName())));
     }
 
     /**
@@ -323,6 +327,7 @@ public class BuilderGenerator {
         constructor.createBody() //
                 .addStatement(
                         assignExpr(fieldAccess(thisExpr(), naming.productField()), nameExpr(naming.productField())));
+        builderMembers.add(constructor);
     }
 
     private void addFactoryMethod(ConstructorDeclaration productConstructor) {
@@ -333,15 +338,14 @@ public class BuilderGenerator {
         factoryMethod.createBody() //
                 .addStatement(//
                         returnStmt(newExpr(builderClassType(), newExpr(productClassType(), args(productConstructor)))));
+        builderMembers.add(factoryMethod);
     }
 
     private boolean hasMatchingFactoryMethod(ConstructorDeclaration productConstructor) {
         return exists(//
-                allMember(builderclass, MethodDeclaration.class) //
+                builderMembers.methodsLike(naming.factoryMethod(), productConstructor) //
                         .filter(MethodDeclaration::isStatic) //
-                        .filter(md -> md.getNameAsString().equals(naming.factoryMethod())) //
-                        .filter(md -> md.getTypeAsString().equals(builderClassName())) //
-                        .filter(md -> ClassUtil.matchesParameter(md, productConstructor)));
+                        .filter(md -> md.getTypeAsString().equals(builderClassName())));
     }
 
     /**
@@ -350,26 +354,26 @@ public class BuilderGenerator {
      * @return the generator instance
      */
     BuilderGenerator addMutator(ListMutatorVariant[] mutatorVariants) {
-        allMember(productclass, FieldDeclaration.class) //
+        fields().stream() //
                 .filter(this::process) //
-                .flatMap(fd -> mutatorDescriptors(mutatorVariants, fd)) //
+                .flatMap(field -> mutatorDescriptors(mutatorVariants, field)) //
                 .filter(not(mutatorHelper::hasMutator)) //
                 .forEach(mutatorHelper::addMutator);
         return this;
     }
 
     private Stream<MutatorMethodDescriptor> mutatorDescriptors(ListMutatorVariant[] mutatorVariants,
-                                                               FieldDeclaration fd) {
-        return ClassUtil.isCollection(fd, productUnit) //
-                ? new ListMutatorDescriptorGenerator(fd, mutatorVariants, naming.mutatorPrefix()).stream()
-                : new MutatorDescriptorGenerator(fd, naming.mutatorPrefix()).stream();
+                                                               FieldModel field) {
+        return field.isCollection() //
+                ? new ListMutatorDescriptorGenerator(field, mutatorVariants, naming.mutatorPrefix()).stream()
+                : new MutatorDescriptorGenerator(field, naming.mutatorPrefix()).stream();
     }
 
-    private boolean process(FieldDeclaration fd) {
-        if (fd.isAnnotationPresent(Ignore.class)) {
+    private boolean process(FieldModel field) {
+        if (field.isIgnored()) {
             return false;
         }
-        if (fd.isPrivate() && separateClass) {
+        if (field.isPrivate() && separateClass) {
             return false;
         }
         return true;
@@ -382,17 +386,18 @@ public class BuilderGenerator {
      */
     BuilderGenerator addBuildMethod() {
         if (!hasBuildMethod()) {
-            builderclass.addMethod(naming.buildMethod(), Modifier.Keyword.PUBLIC) //
-                    .setType(productClassType()) //
-                    .createBody() //
+            MethodDeclaration buildMethod = builderclass.addMethod(naming.buildMethod(), Modifier.Keyword.PUBLIC) //
+                    .setType(productClassType());
+            buildMethod.createBody() //
                     .addStatement(returnStmt(nameExpr(naming.productField())));
+            builderMembers.add(buildMethod);
         }
         return this;
     }
 
     private boolean hasBuildMethod() {
         return exists(//
-                allMember(builderclass, MethodDeclaration.class) //
+                builderMembers.methods() //
                         .filter(md -> md.getNameAsString().equals(naming.buildMethod())) //
                         .filter(md -> md.getType().equals(productClassType())));
     }
@@ -403,15 +408,27 @@ public class BuilderGenerator {
      * @param adderVariants
      */
     BuilderGenerator addAdder(ListMutatorVariant[] adderVariants) {
-        allMember(productclass, FieldDeclaration.class) //
+        fields().stream() //
                 .filter(this::process) //
-                .flatMap(fd -> new AdderMethodDescriptor.Generator(fd, adderVariants, productUnit, naming.adderPrefix())
+                .flatMap(field -> new AdderMethodDescriptor.Generator(field, adderVariants, naming.adderPrefix())
                         .stream()) //
                 .filter(not(adderHelper::hasAdder)) //
                 .forEach(adderHelper::addAdder);
         return this;
     }
 
+    /**
+     * Returns the models of the product fields.
+     * <p>
+     * Created on first use, so the type resolver set after construction is
+     * used.
+     *
+     * @return list of field models
+     */
+    private List<FieldModel> fields() {
+        return FieldModel.of(productclass, productUnit, typeResolver);
+    }
+
     ClassOrInterfaceType builderClassType() {
         return new ClassOrInterfaceType(builderClassName());
     }
@@ -442,19 +459,14 @@ public class BuilderGenerator {
     }
 
     /**
-     * Checks a class declaration for a usable constructor.
+     * Checks the product class for a usable constructor.
      * <p>
      * The constructor must be callable by the builder
      *
-     * @param type
-     *            class to check
      * @return {@code true} if the class contains fitting constructor.
      */
-    private boolean hasUsableConstructor(ClassOrInterfaceDeclaration type) {
-        List<ConstructorDeclaration> constructorList = //
-                allMember(type, ConstructorDeclaration.class).collect(Collectors.toList());
-
-        return constructorList.isEmpty() || constructorList.stream().anyMatch(this::process);
+    private boolean hasUsableConstructor() {
+        return !exists(productMembers.constructors()) || productMembers.constructors().anyMatch(this::process);
     }
 
     /**
@@ -475,6 +487,14 @@ public class BuilderGenerator {
         return builderclass;
     }
 
+    MemberIndex builderMembers() {
+        return builderMembers;
+    }
+
+    TypeResolver typeResolver() {
+        return typeResolver;
+    }
+
     Naming naming() {
         return naming;
     }
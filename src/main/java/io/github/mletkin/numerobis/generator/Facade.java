@@ -20,6 +20,7 @@ import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 
 import io.github.mletkin.numerobis.annotation.GenerateAccessors;
 import io.github.mletkin.numerobis.annotation.GenerateBuilder;
+import io.github.mletkin.numerobis.generator.common.TypeResolver;
 import io.github.mletkin.numerobis.plugin.Naming;
 
 /**
@@ -31,6 +32,7 @@ public class Facade {
     private ListMutatorVariant[] adderVariants;
     private ListMutatorVariant[] mutatorVariants;
     private Naming namingSettings;
+    private TypeResolver typeResolver = TypeResolver.defaultResolver();
 
     public Facade(boolean productsAreMutable) {
         this(productsAreMutable, Naming.DEFAULT);
@@ -51,6 +53,21 @@ public class Facade {
         return this;
     }
 
+    /**
+     * Sets the resolver for the types used in the product classes.
+     * <p>
+     * The resolver caches the resolved types, use the same resolver for all
+     * files of a run.
+     *
+     * @param typeResolver
+     *            resolver to use
+     * @return the facade instance
+     */
+    public Facade withTypeResolver(TypeResolver typeResolver) {
+        this.typeResolver = typeResolver;
+        return this;
+    }
+
     public static class Result {
         public CompilationUnit productUnit;
         public CompilationUnit builderUnit;
@@ -165,6 +182,7 @@ public class Facade {
         return new BuilderGenerator(productUnit, productClassName) //
                 .mutableByDefault(productsAreMutable) //
                 .withNamingSettings(namingSettings) //
+                .withTypeResolver(typeResolver) //
                 .withExternalBuilder(builderUnit);
     }
 
@@ -172,6 +190,7 @@ public class Facade {
         return new BuilderGenerator(productUnit, productClassName) //
                 .mutableByDefault(productsAreMutable) //
                 .withNamingSettings(namingSettings) //
+                .withTypeResolver(typeResolver) //
                 .withInternalBuilder();
     }
 
@@ -186,6 +205,7 @@ public class Facade {
      */
     public CompilationUnit withAccessors(CompilationUnit productUnit, String className) {
         return new AccessorGenerator(productUnit, className) //
+                .withTypeResolver(typeResolver) //
                 .addAccessors() //
                 .resultUnit();
     }
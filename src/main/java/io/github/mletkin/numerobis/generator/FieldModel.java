@@ -0,0 +1,245 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.generator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.type.Type;
+
+import io.github.mletkin.numerobis.annotation.GenerateAdder;
+import io.github.mletkin.numerobis.annotation.GenerateListMutator;
+import io.github.mletkin.numerobis.annotation.GenerateMutator;
+import io.github.mletkin.numerobis.annotation.Ignore;
+import io.github.mletkin.numerobis.generator.common.StringExtractor;
+import io.github.mletkin.numerobis.generator.common.TypeResolver;
+import io.github.mletkin.numerobis.generator.common.VariantExtractor;
+
+/**
+ * The properties of a product field used for the generation of builder and
+ * accessor methods.
+ * <p>
+ * The type of the field is resolved and the annotations of the field are read
+ * once. The models of a product class are stored in the class declaration and
+ * shared by all generators that process the class.
+ */
+public class FieldModel {
+
+    private static final DataKey<Models> MODELS = new DataKey<Models>() {
+    };
+
+    /**
+     * Kind of collection, determines how values are collected.
+     */
+    public enum CollectionKind {
+        NONE, // no collection
+        LIST, // implements List
+        SET, // implements Set
+        CONSTRUCTIBLE, // declared in the sources with a default constructor
+        OTHER, // any other collection
+        ;
+
+        /**
+         * Checks whether the kind describes a collection.
+         *
+         * @return {@code true} if the field is a collection
+         */
+        public boolean isCollection() {
+            return this != NONE;
+        }
+    }
+
+    private final FieldDeclaration field;
+    private final boolean ignored;
+    private final CollectionKind collectionKind;
+    private final Type elementType;
+    private final String mutatorName;
+    private final String listMutatorName;
+    private final ListMutatorVariant[] listMutatorVariants;
+    private final ListMutatorVariant[] adderVariants;
+
+    private FieldModel(FieldDeclaration field, CompilationUnit cu, TypeResolver typeResolver) {
+        this.field = field;
+        this.ignored = field.isAnnotationPresent(Ignore.class);
+        this.collectionKind = collectionKind(field.getElementType(), cu, typeResolver);
+        this.elementType = collectionKind.isCollection() //
+                ? typeResolver.elementType(field.getElementType(), cu).orElse(null)
+                : null;
+        this.mutatorName = new StringExtractor(GenerateMutator.class, "name").value(field).orElse(null);
+        this.listMutatorName = new StringExtractor(GenerateListMutator.class, "name").value(field).orElse(null);
+        this.listMutatorVariants = new VariantExtractor(GenerateListMutator.class).variants(field);
+        this.adderVariants = new VariantExtractor(GenerateAdder.class).variants(field);
+    }
+
+    private static CollectionKind collectionKind(Type type, CompilationUnit cu, TypeResolver typeResolver) {
+        if (!typeResolver.isCollection(type, cu)) {
+            return CollectionKind.NONE;
+        }
+        if (typeResolver.declaresDefaultConstructor(type, cu)) {
+            return CollectionKind.CONSTRUCTIBLE;
+        }
+        if (typeResolver.extendsInterface(type, List.class, cu)) {
+            return CollectionKind.LIST;
+        }
+        if (typeResolver.extendsInterface(type, Set.class, cu)) {
+            return CollectionKind.SET;
+        }
+        return CollectionKind.OTHER;
+    }
+
+    /**
+     * Returns the models of the fields of a class.
+     * <p>
+     * The models are created on the first call and stored in the class
+     * declaration. They are created again when fields are added or removed or
+     * another resolver is used.
+     *
+     * @param clazz
+     *            declaration of the class
+     * @param cu
+     *            compilation unit with the class
+     * @param typeResolver
+     *            resolver for the field types
+     * @return list of field models in declaration order
+     */
+    static List<FieldModel> of(ClassOrInterfaceDeclaration clazz, CompilationUnit cu, TypeResolver typeResolver) {
+        List<FieldDeclaration> fields = new ArrayList<>();
+        for (BodyDeclaration<?> member : clazz.getMembers()) {
+            if (member instanceof FieldDeclaration) {
+                fields.add((FieldDeclaration) member);
+            }
+        }
+        if (clazz.containsData(MODELS)) {
+            Models models = clazz.getData(MODELS);
+            if (models.typeResolver == typeResolver && models.describe(fields)) {
+                return models.fields;
+            }
+        }
+        List<FieldModel> result = new ArrayList<>(fields.size());
+        fields.forEach(fd -> result.add(new FieldModel(fd, cu, typeResolver)));
+        Models models = new Models(typeResolver, Collections.unmodifiableList(result));
+        clazz.setData(MODELS, models);
+        return models.fields;
+    }
+
+    public FieldDeclaration field() {
+        return field;
+    }
+
+    public List<VariableDeclarator> variables() {
+        return field.getVariables();
+    }
+
+    public boolean isIgnored() {
+        return ignored;
+    }
+
+    public boolean isPrivate() {
+        return field.isPrivate();
+    }
+
+    public CollectionKind collectionKind() {
+        return collectionKind;
+    }
+
+    public boolean isCollection() {
+        return collectionKind.isCollection();
+    }
+
+    /**
+     * Returns the element type of a collection variable.
+     * <p>
+     * Variables with additional array dimensions ({@code List<T> x[]}) have no
+     * element type.
+     *
+     * @param vd
+     *            variable of the field
+     * @return the element type wrapped in an optional
+     */
+    public Optional<Type> elementType(VariableDeclarator vd) {
+        return vd.getType().isArrayType() ? Optional.empty() : Optional.ofNullable(elementType);
+    }
+
+    /**
+     * Returns the name set with {@code GenerateMutator}.
+     *
+     * @return the custom mutator name wrapped in an optional
+     */
+    public Optional<String> mutatorName() {
+        return Optional.ofNullable(mutatorName);
+    }
+
+    /**
+     * Returns the name set with {@code GenerateListMutator}.
+     *
+     * @return the custom list mutator name wrapped in an optional
+     */
+    public Optional<String> listMutatorName() {
+        return Optional.ofNullable(listMutatorName);
+    }
+
+    /**
+     * Returns the variants set with {@code GenerateListMutator}.
+     *
+     * @return array of variants, empty if not set
+     */
+    public ListMutatorVariant[] listMutatorVariants() {
+        return listMutatorVariants;
+    }
+
+    /**
+     * Returns the variants set with {@code GenerateAdder}.
+     *
+     * @return array of variants, empty if not set
+     */
+    public ListMutatorVariant[] adderVariants() {
+        return adderVariants;
+    }
+
+    /**
+     * The models stored in a class declaration.
+     */
+    private static class Models {
+        private final TypeResolver typeResolver;
+        private final List<FieldModel> fields;
+
+        Models(TypeResolver typeResolver, List<FieldModel> fields) {
+            this.typeResolver = typeResolver;
+            this.fields = fields;
+        }
+
+        boolean describe(List<FieldDeclaration> declarations) {
+            if (declarations.size() != fields.size()) {
+                return false;
+            }
+            for (int n = 0; n < declarations.size(); n++) {
+                if (declarations.get(n) != fields.get(n).field) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
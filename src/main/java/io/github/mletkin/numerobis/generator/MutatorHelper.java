@@ -16,20 +16,18 @@
 package io.github.mletkin.numerobis.generator;
 
 import static io.github.mletkin.numerobis.common.Util.exists;
-import static io.github.mletkin.numerobis.generator.common.ClassUtil.allMember;
-import static io.github.mletkin.numerobis.generator.common.ClassUtil.firstTypeArgument;
 import static io.github.mletkin.numerobis.generator.common.GenerationUtil.assignExpr;
 import static io.github.mletkin.numerobis.generator.common.GenerationUtil.collectionType;
 import static io.github.mletkin.numerobis.generator.common.GenerationUtil.fieldAccess;
 import static io.github.mletkin.numerobis.generator.common.GenerationUtil.methodCall;
+import static io.github.mletkin.numerobis.generator.common.GenerationUtil.methodReference;
 import static io.github.mletkin.numerobis.generator.common.GenerationUtil.nameExpr;
 import static io.github.mletkin.numerobis.generator.common.GenerationUtil.returnStmt;
 import static io.github.mletkin.numerobis.generator.common.GenerationUtil.streamType;
 import static io.github.mletkin.numerobis.generator.common.GenerationUtil.thisExpr;
 
 import java.util.Collection;
-import java.util.List;
-import java.util.Set;
+import java.util.Optional;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -37,6 +35,9 @@ import java.util.stream.Stream;
 import com.github.javaparser.ast.Modifier;
 import com.github.javaparser.ast.body.CallableDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.TypeExpr;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
 import com.github.javaparser.ast.type.Type;
 
 import io.github.mletkin.numerobis.generator.common.ClassUtil;
@@ -113,13 +114,13 @@ public class MutatorHelper {
     }
 
     private boolean hasMutatorMethod(MutatorMethodDescriptor mmd) {
+        Type parameterType = mutatorParameterType(mmd);
         Predicate<CallableDeclaration<?>> parameterFilter = mmd.variant().isVarArg() //
-                ? ClassUtil.hasSingleVarArgParameter(mutatorParameterType(mmd))
-                : ClassUtil.hasSingleParameter(mutatorParameterType(mmd));
+                ? ClassUtil.hasSingleVarArgParameter(parameterType)
+                : ClassUtil.hasSingleParameter(parameterType);
 
         return exists(//
-                allMember(owner.builderClass(), MethodDeclaration.class) //
-                        .filter(md -> md.getNameAsString().equals(mmd.methodName())) //
+                owner.builderMembers().methodsWith(mmd.methodName(), parameterType) //
                         .filter(parameterFilter) //
                         .filter(md -> md.getType().equals(owner.builderClassType())));
     }
@@ -138,21 +139,27 @@ public class MutatorHelper {
                         methodCall(//
                                 nameExpr("items"), //
                                 "collect", //
-                                methodCall(nameExpr(Collectors.class), collector(mmd))))) //
+                                collector(mmd)))) //
                 .addStatement(returnStmt(thisExpr()));
 
         owner.builderUnit().addImport(Stream.class);
         owner.builderUnit().addImport(Collectors.class);
     }
 
-    private String collector(MutatorMethodDescriptor mmd) {
-        if (ClassUtil.extendsInterface(mmd.parameterType(), List.class, owner.productUnit())) {
-            return "toList";
-        }
-        if (ClassUtil.extendsInterface(mmd.parameterType(), Set.class, owner.productUnit())) {
-            return "toSet";
+    private MethodCallExpr collector(MutatorMethodDescriptor mmd) {
+        switch (mmd.collectionKind()) {
+        case CONSTRUCTIBLE:
+            ClassOrInterfaceType collectionType = mmd.parameterType().asClassOrInterfaceType().clone();
+            collectionType.removeTypeArguments();
+            return methodCall(nameExpr(Collectors.class), "toCollection",
+                    methodReference(new TypeExpr(collectionType), "new"));
+        case LIST:
+            return methodCall(nameExpr(Collectors.class), "toList");
+        case SET:
+            return methodCall(nameExpr(Collectors.class), "toSet");
+        default:
+            throw new IllegalArgumentException();
         }
-        throw new IllegalArgumentException();
     }
 
     private void addCollectionMutator(MutatorMethodDescriptor mmd) {
@@ -162,7 +169,7 @@ public class MutatorHelper {
                         methodCall(//
                                 methodCall(nameExpr("items"), "stream"), //
                                 "collect", //
-                                methodCall(nameExpr(Collectors.class), collector(mmd))))) //
+                                collector(mmd)))) //
                 .addStatement(returnStmt(thisExpr()));
 
         owner.builderUnit().addImport(Collectors.class);
@@ -176,7 +183,7 @@ public class MutatorHelper {
                         methodCall(//
                                 methodCall(nameExpr(Stream.class), "of", nameExpr("items")), //
                                 "collect", //
-                                methodCall(nameExpr(Collectors.class), collector(mmd))))) //
+                                collector(mmd)))) //
                 .addStatement(returnStmt(thisExpr()));
 
         owner.builderUnit().addImport(Stream.class);
@@ -188,6 +195,7 @@ public class MutatorHelper {
         meth.addAndGetParameter(mutatorParameterType(mmd), parameterName) //
                 .setVarArgs(mmd.variant().isVarArg());
         meth.setType(owner.builderClassType());
+        owner.builderMembers().add(meth);
         return meth;
     }
 
@@ -203,14 +211,17 @@ public class MutatorHelper {
         case OBJECT:
             return mmd.parameterType();
         case STREAM:
-            return streamType(firstTypeArgument(mmd.parameterType()));
+            return streamType(elementType(mmd));
         case COLLECTION:
-            return collectionType(firstTypeArgument(mmd.parameterType()));
+            return collectionType(elementType(mmd));
         case VARARG:
-            return firstTypeArgument(mmd.parameterType());
+            return elementType(mmd);
         default:
             throw new IllegalArgumentException();
         }
     }
 
+    private Type elementType(MutatorMethodDescriptor mmd) {
+        return Optional.ofNullable(mmd.elementType()).orElseThrow(IllegalArgumentException::new);
+    }
 }
@@ -15,7 +15,8 @@
  */
 package io.github.mletkin.numerobis.generator;
 
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.ListIterator;
 
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.NodeList;
@@ -72,26 +73,44 @@ public class Sorter {
 
     /**
      * Sort the members of a {@code NodeList}.
+     * <p>
+     * The rank of each member is computed once. Rank and position are packed
+     * into a {@code long}, so sorting the keys keeps members with the same rank
+     * in their order. The list is not changed when it is already sorted.
      *
      * @param member
      *            {@code NodeList} object to sort
      */
     private void sort(NodeList<BodyDeclaration<?>> member) {
-        Collections.sort(member, this::compare);
-    }
-
-    private int compare(BodyDeclaration<?> bd1, BodyDeclaration<?> bd2) {
-        return Integer.compare(value(bd1), value(bd2));
+        int size = member.size();
+        long[] keys = new long[size];
+        boolean sorted = true;
+        for (int n = 0; n < size; n++) {
+            keys[n] = ((long) rank(member.get(n)) << 32) | n;
+            sorted &= n == 0 || keys[n - 1] < keys[n];
+        }
+        if (sorted) {
+            return;
+        }
+        Arrays.sort(keys);
+        BodyDeclaration<?>[] nodes = member.toArray(new BodyDeclaration<?>[size]);
+        ListIterator<BodyDeclaration<?>> iterator = member.listIterator();
+        for (long key : keys) {
+            iterator.next();
+            iterator.set(nodes[(int) key]);
+        }
     }
 
     /**
      * Assign an order index to a {@code BodyDeclaration} object.
+     * <p>
+     * Members with a lower index are placed before members with a higher index.
      *
      * @param declaration
      *            object to assess
      * @return index value
      */
-    private int value(BodyDeclaration<?> declaration) {
+    public int rank(BodyDeclaration<?> declaration) {
         if (declaration instanceof FieldDeclaration) {
             FieldDeclaration fd = (FieldDeclaration) declaration;
             return fd.isStatic() ? 10 : 11;
@@ -17,20 +17,16 @@ package io.github.mletkin.numerobis.generator.common;
 
 import static io.github.mletkin.numerobis.common.Util.exists;
 
-import java.util.Collection;
 import java.util.Optional;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 import com.github.javaparser.ast.CompilationUnit;
-import com.github.javaparser.ast.ImportDeclaration;
 import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.BodyDeclaration;
 import com.github.javaparser.ast.body.CallableDeclaration;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.body.ConstructorDeclaration;
-import com.github.javaparser.ast.body.FieldDeclaration;
-import com.github.javaparser.ast.body.VariableDeclarator;
-import com.github.javaparser.ast.expr.SimpleName;
 import com.github.javaparser.ast.type.Type;
 
 /**
@@ -94,63 +90,6 @@ public final class ClassUtil {
                 .anyMatch(cd -> cd.getParameter(0).getTypeAsString().equals(productClassName));
     }
 
-    /**
-     * Checks, whether a variable type is a {@code Collection}.
-     *
-     * @param vd
-     *            declaration of the variable to check
-     * @param cu
-     *            Compilation unit with imports
-     * @return {@code true}, if the type is a {@code Collection}
-     */
-    public static boolean isCollection(VariableDeclarator vd, CompilationUnit cu) {
-        return extendsInterface(vd.getType(), Collection.class, cu);
-    }
-
-    /**
-     * Checks, whether a field declaration type is a {@code Collection}.
-     *
-     * @param fd
-     *            field declaration to check
-     * @param cu
-     *            Compilation unit with imports
-     * @return {@code true}, if the type is a {@code Collection}
-     */
-    public static boolean isCollection(FieldDeclaration fd, CompilationUnit cu) {
-        return extendsInterface(fd.getElementType(), Collection.class, cu);
-    }
-
-    /**
-     * Checks, whether a type extends a given interface.
-     *
-     * @param type
-     *            Type to check
-     * @param clazz
-     *            Class object of the interface
-     * @param cu
-     *            Compilation unit with imports
-     * @return {@code true}, if the type extends the interface
-     */
-    public static boolean extendsInterface(Type type, Class<?> clazz, CompilationUnit cu) {
-        String typ = type.findFirst(SimpleName.class).map(SimpleName::asString).orElse("#");
-
-        Optional<String> fullType = cu.getImports().stream() //
-                .map(ImportDeclaration::getNameAsString) //
-                .filter(i -> i.endsWith(typ)) //
-                .findFirst();
-
-        try {
-            if (fullType.isPresent()) {
-                Class<?> c = Class.forName(fullType.get());
-                c.asSubclass(clazz);
-                return true;
-            }
-        } catch (ClassCastException | ClassNotFoundException e) {
-            return false;
-        }
-        return false;
-    }
-
     /**
      * Compares the parameter types of two method or constructor declarations.
      *
@@ -174,6 +113,9 @@ public final class ClassUtil {
 
     /**
      * Returns all members of a given type for a class declaration.
+     * <p>
+     * Body declarations are taken from the member list, the subtree is only
+     * searched for other node types.
      *
      * @param <T>
      *            member Type
@@ -184,6 +126,11 @@ public final class ClassUtil {
      * @return stream of members
      */
     public static <T extends Node> Stream<T> allMember(ClassOrInterfaceDeclaration decl, Class<T> memberType) {
+        if (BodyDeclaration.class.isAssignableFrom(memberType)) {
+            return decl.getMembers().stream() //
+                    .filter(memberType::isInstance) //
+                    .map(memberType::cast);
+        }
         return decl.findAll(memberType) //
                 .stream() //
                 .filter(isMember(decl));
@@ -0,0 +1,109 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.generator.common;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.ast.type.TypeParameter;
+
+/**
+ * Summary of a class or interface declared in the project sources.
+ * <p>
+ * Holds copies of the types, no nodes of the declaring unit.
+ */
+final class DeclaredType {
+
+    private final String binaryName;
+    private final Scope scope;
+    private final List<String> typeParameters = new ArrayList<>();
+    private final List<ClassOrInterfaceType> supertypes = new ArrayList<>();
+    private final List<List<Type>> constructors = new ArrayList<>();
+    private final boolean instantiable;
+    private final boolean implicitConstructor;
+
+    /**
+     * Creates the summary of a declaration.
+     *
+     * @param binaryName
+     *            binary name of the declared type
+     * @param scope
+     *            scope inside the declaration, used to resolve the supertypes
+     * @param decl
+     *            the declaration
+     */
+    DeclaredType(String binaryName, Scope scope, ClassOrInterfaceDeclaration decl) {
+        this.binaryName = binaryName;
+        this.scope = scope;
+        this.instantiable = !decl.isInterface() && !decl.isAbstract() //
+                && (decl.isStatic() || !decl.isNestedType());
+        this.implicitConstructor = decl.getConstructors().isEmpty();
+
+        for (TypeParameter parameter : decl.getTypeParameters()) {
+            typeParameters.add(parameter.getNameAsString());
+        }
+        decl.getExtendedTypes().forEach(t -> supertypes.add(t.clone()));
+        decl.getImplementedTypes().forEach(t -> supertypes.add(t.clone()));
+        for (ConstructorDeclaration constructor : decl.getConstructors()) {
+            if (!constructor.isPrivate()) {
+                List<Type> parameterTypes = new ArrayList<>();
+                for (Parameter parameter : constructor.getParameters()) {
+                    parameterTypes.add(parameter.getType().clone());
+                }
+                constructors.add(parameterTypes);
+            }
+        }
+    }
+
+    String binaryName() {
+        return binaryName;
+    }
+
+    Scope scope() {
+        return scope;
+    }
+
+    List<String> typeParameters() {
+        return typeParameters;
+    }
+
+    List<ClassOrInterfaceType> supertypes() {
+        return supertypes;
+    }
+
+    /**
+     * Returns the parameter types of the non private constructors.
+     *
+     * @return list of parameter type lists
+     */
+    List<List<Type>> constructors() {
+        return constructors;
+    }
+
+    /**
+     * Checks whether instances can be created with {@code new} and no arguments.
+     *
+     * @return {@code true} if the class has an accessible default constructor
+     */
+    boolean hasDefaultConstructor() {
+        return instantiable && (implicitConstructor || constructors.stream().anyMatch(List::isEmpty));
+    }
+}
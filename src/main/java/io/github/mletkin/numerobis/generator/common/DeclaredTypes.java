@@ -0,0 +1,250 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.generator.common;
+
+import static java.util.Collections.emptyMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+
+/**
+ * Index of the types declared in the source files of the project.
+ * <p>
+ * The index is created from the files found by the walk through the source
+ * directories. It only maps the name of the primary type of each file to the
+ * file, derived from the path relative to the source directory. A file is
+ * parsed when one of its types is looked up for the first time, units that are
+ * already parsed can be added. The types of a file are kept as
+ * {@link DeclaredType} summaries and are shared by all threads. Files are
+ * parsed outside of the map, threads that parse the same file at the same time
+ * use the summaries stored first.
+ * <p>
+ * Top level types that are not the primary type of their file can not be
+ * found. Nested types are found through their top level type.
+ */
+public class DeclaredTypes {
+
+    private static final DeclaredTypes NONE = new DeclaredTypes(emptyMap(), StandardCharsets.UTF_8);
+
+    private static final ThreadLocal<JavaParser> PARSER = //
+            ThreadLocal.withInitial(() -> new JavaParser(new ParserConfiguration()));
+
+    private final Map<String, Path> files;
+    private final Set<Path> paths;
+    private final Charset charset;
+    private final Map<Path, Map<String, DeclaredType>> types = new ConcurrentHashMap<>();
+
+    private DeclaredTypes(Map<String, Path> files, Charset charset) {
+        this.files = files;
+        this.paths = new HashSet<>(files.values());
+        this.charset = charset;
+    }
+
+    /**
+     * Creates the index for the source files of a project.
+     *
+     * @param sourceRoots
+     *            the source directories
+     * @param sourceFiles
+     *            the java files in the source directories
+     * @param charset
+     *            encoding of the java files
+     */
+    public DeclaredTypes(Collection<String> sourceRoots, Collection<File> sourceFiles, Charset charset) {
+        this(primaryTypes(sourceRoots, sourceFiles), charset);
+    }
+
+    private static Map<String, Path> primaryTypes(Collection<String> sourceRoots, Collection<File> sourceFiles) {
+        List<Path> roots = new ArrayList<>();
+        sourceRoots.forEach(r -> roots.add(normalize(Paths.get(r))));
+        Map<String, Path> result = new HashMap<>();
+        for (File file : sourceFiles) {
+            Path path = normalize(file.toPath());
+            roots.stream() //
+                    .filter(path::startsWith) //
+                    .filter(root -> path.toString().endsWith(".java")) //
+                    .findFirst() //
+                    .map(root -> primaryTypeName(root.relativize(path))) //
+                    .ifPresent(name -> result.putIfAbsent(name, path));
+        }
+        return result;
+    }
+
+    /**
+     * Creates the index for compilation units that are already parsed.
+     * <p>
+     * Used where the sources are not read from the source directories, like in
+     * the annotation processor. All top level types of the units can be found.
+     * The units must not be changed while the index is used.
+     *
+     * @param units
+     *            the parsed compilation units
+     * @return the index
+     */
+    public static DeclaredTypes of(Collection<CompilationUnit> units) {
+        Map<String, Path> files = new HashMap<>();
+        Map<Path, Map<String, DeclaredType>> declarations = new HashMap<>();
+        for (CompilationUnit unit : units) {
+            if (unit.getTypes().isEmpty()) {
+                continue;
+            }
+            String prefix = packagePrefix(unit);
+            Path path = unit.getStorage() //
+                    .map(s -> normalize(s.getPath())) //
+                    .orElseGet(() -> Paths.get(prefix.replace('.', '/') + unit.getType(0).getNameAsString() + ".java"));
+            unit.getTypes().forEach(t -> files.putIfAbsent(prefix + t.getNameAsString(), path));
+            declarations.put(path, declarations(unit));
+        }
+        DeclaredTypes result = new DeclaredTypes(files, StandardCharsets.UTF_8);
+        result.types.putAll(declarations);
+        return result;
+    }
+
+    /**
+     * Returns an empty index.
+     *
+     * @return the index without types
+     */
+    public static DeclaredTypes none() {
+        return NONE;
+    }
+
+    private static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    private static String primaryTypeName(Path relative) {
+        String name = relative.toString();
+        return name.substring(0, name.length() - ".java".length()).replace(File.separatorChar, '.');
+    }
+
+    /**
+     * Adds the types of a parsed source file.
+     * <p>
+     * Spares parsing the file again when its types are looked up. Files that are
+     * not part of the index are ignored.
+     *
+     * @param file
+     *            the source file
+     * @param unit
+     *            the compilation unit parsed from the file, before any change
+     */
+    public void add(Path file, CompilationUnit unit) {
+        Path path = normalize(file);
+        if (paths.contains(path) && !types.containsKey(path)) {
+            types.putIfAbsent(path, declarations(unit));
+        }
+    }
+
+    /**
+     * Finds the declaration of a type.
+     *
+     * @param binaryName
+     *            binary name of the type
+     * @return the summary of the declaration wrapped in an optional
+     */
+    Optional<DeclaredType> find(String binaryName) {
+        return file(binaryName) //
+                .map(file -> load(file).get(binaryName));
+    }
+
+    private Map<String, DeclaredType> load(Path file) {
+        Map<String, DeclaredType> known = types.get(file);
+        if (known != null) {
+            return known;
+        }
+        Map<String, DeclaredType> parsed = parse(file);
+        known = types.putIfAbsent(file, parsed);
+        return known == null ? parsed : known;
+    }
+
+    /**
+     * Finds the source file that declares a type.
+     *
+     * @param binaryName
+     *            binary name of the type
+     * @return the path of the file wrapped in an optional
+     */
+    Optional<Path> file(String binaryName) {
+        int nested = binaryName.indexOf('$');
+        return Optional.ofNullable(files.get(nested < 0 ? binaryName : binaryName.substring(0, nested)));
+    }
+
+    private Map<String, DeclaredType> parse(Path file) {
+        try {
+            JavaParser parser = PARSER.get();
+            parser.getParserConfiguration().setCharacterEncoding(charset);
+            ParseResult<CompilationUnit> result = parser.parse(file);
+            return result.getResult() //
+                    .filter(u -> result.isSuccessful()) //
+                    .map(DeclaredTypes::declarations) //
+                    .orElse(emptyMap());
+        } catch (IOException e) {
+            return emptyMap();
+        }
+    }
+
+    private static Map<String, DeclaredType> declarations(CompilationUnit unit) {
+        Map<String, DeclaredType> result = new HashMap<>();
+        String prefix = packagePrefix(unit);
+        for (TypeDeclaration<?> type : unit.getTypes()) {
+            add(result, unit, type, prefix + type.getNameAsString(), new ArrayList<>());
+        }
+        return result;
+    }
+
+    private static String packagePrefix(CompilationUnit unit) {
+        return unit.getPackageDeclaration().map(p -> p.getNameAsString() + '.').orElse("");
+    }
+
+    private static void add(Map<String, DeclaredType> result, CompilationUnit unit, TypeDeclaration<?> type,
+            String binaryName, List<String> enclosing) {
+        List<String> scope = new ArrayList<>(enclosing.size() + 1);
+        scope.add(binaryName);
+        scope.addAll(enclosing);
+        if (type instanceof ClassOrInterfaceDeclaration) {
+            result.put(binaryName,
+                    new DeclaredType(binaryName, Scope.of(unit, scope), (ClassOrInterfaceDeclaration) type));
+        }
+        for (BodyDeclaration<?> member : type.getMembers()) {
+            if (member instanceof TypeDeclaration) {
+                TypeDeclaration<?> nested = (TypeDeclaration<?>) member;
+                add(result, unit, nested, binaryName + '$' + nested.getNameAsString(), scope);
+            }
+        }
+    }
+}
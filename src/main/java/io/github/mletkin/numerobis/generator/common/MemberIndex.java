@@ -0,0 +1,184 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.generator.common;
+
+import static java.util.Collections.emptyList;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.type.Type;
+
+/**
+ * Index of the fields, constructors and methods of a class declaration.
+ * <p>
+ * The index is built once from the members of the class. Members that are
+ * added to the class later must be registered with {@link #add(BodyDeclaration)}
+ * after their parameters are set, the index does not observe the class.
+ * <ul>
+ * <li>field variables are indexed by name
+ * <li>constructors are indexed by their parameter types
+ * <li>methods are indexed by name and parameter types
+ * </ul>
+ * Parameter types are compared by their string representation, the var arg
+ * flag is not part of the key.
+ */
+public class MemberIndex {
+
+    private final List<FieldDeclaration> fields = new ArrayList<>();
+    private final List<ConstructorDeclaration> constructors = new ArrayList<>();
+    private final List<MethodDeclaration> methods = new ArrayList<>();
+
+    private final Map<String, VariableDeclarator> variables = new HashMap<>();
+    private final Map<String, List<ConstructorDeclaration>> constructorsBySignature = new HashMap<>();
+    private final Map<String, List<MethodDeclaration>> methodsBySignature = new HashMap<>();
+
+    /**
+     * Creates the index for a class declaration.
+     *
+     * @param decl
+     *            the class declaration to index
+     */
+    public MemberIndex(ClassOrInterfaceDeclaration decl) {
+        decl.getMembers().forEach(this::add);
+    }
+
+    /**
+     * Registers a member of the indexed class.
+     * <p>
+     * Members other than fields, constructors and methods are ignored.
+     *
+     * @param member
+     *            the member to register
+     */
+    public void add(BodyDeclaration<?> member) {
+        if (member instanceof FieldDeclaration) {
+            FieldDeclaration field = (FieldDeclaration) member;
+            fields.add(field);
+            field.getVariables().forEach(vd -> variables.putIfAbsent(vd.getNameAsString(), vd));
+        } else if (member instanceof ConstructorDeclaration) {
+            ConstructorDeclaration constructor = (ConstructorDeclaration) member;
+            constructors.add(constructor);
+            constructorsBySignature.computeIfAbsent(signature("", constructor), k -> new ArrayList<>(1))
+                    .add(constructor);
+        } else if (member instanceof MethodDeclaration) {
+            MethodDeclaration method = (MethodDeclaration) member;
+            methods.add(method);
+            methodsBySignature.computeIfAbsent(signature(method.getNameAsString(), method), k -> new ArrayList<>(1))
+                    .add(method);
+        }
+    }
+
+    public Stream<FieldDeclaration> fields() {
+        return fields.stream();
+    }
+
+    public Stream<ConstructorDeclaration> constructors() {
+        return constructors.stream();
+    }
+
+    public Stream<MethodDeclaration> methods() {
+        return methods.stream();
+    }
+
+    /**
+     * Finds a field variable by name.
+     *
+     * @param name
+     *            name of the variable
+     * @return the variable declarator wrapped in an optional
+     */
+    public Optional<VariableDeclarator> variable(String name) {
+        return Optional.ofNullable(variables.get(name));
+    }
+
+    /**
+     * Finds the constructors with the given parameter types.
+     *
+     * @param parameterTypes
+     *            types of the parameters
+     * @return stream of matching constructors
+     */
+    public Stream<ConstructorDeclaration> constructorsWith(Type... parameterTypes) {
+        return constructorsBySignature.getOrDefault(signature("", parameterTypes), emptyList()).stream();
+    }
+
+    /**
+     * Finds the constructors with the parameter types of another declaration.
+     *
+     * @param template
+     *            method or constructor with the parameter types
+     * @return stream of matching constructors
+     */
+    public Stream<ConstructorDeclaration> constructorsLike(CallableDeclaration<?> template) {
+        return constructorsBySignature.getOrDefault(signature("", template), emptyList()).stream();
+    }
+
+    /**
+     * Finds the methods with the given name and parameter types.
+     *
+     * @param name
+     *            name of the method
+     * @param parameterTypes
+     *            types of the parameters
+     * @return stream of matching methods
+     */
+    public Stream<MethodDeclaration> methodsWith(String name, Type... parameterTypes) {
+        return methodsBySignature.getOrDefault(signature(name, parameterTypes), emptyList()).stream();
+    }
+
+    /**
+     * Finds the methods with the given name and the parameter types of another
+     * declaration.
+     *
+     * @param name
+     *            name of the method
+     * @param template
+     *            method or constructor with the parameter types
+     * @return stream of matching methods
+     */
+    public Stream<MethodDeclaration> methodsLike(String name, CallableDeclaration<?> template) {
+        return methodsBySignature.getOrDefault(signature(name, template), emptyList()).stream();
+    }
+
+    private static String signature(String name, CallableDeclaration<?> callable) {
+        StringBuilder key = new StringBuilder(name).append('(');
+        for (Parameter parameter : callable.getParameters()) {
+            key.append(parameter.getTypeAsString()).append(',');
+        }
+        return key.append(')').toString();
+    }
+
+    private static String signature(String name, Type... parameterTypes) {
+        StringBuilder key = new StringBuilder(name).append('(');
+        for (Type type : parameterTypes) {
+            key.append(type.asString()).append(',');
+        }
+        return key.append(')').toString();
+    }
+}
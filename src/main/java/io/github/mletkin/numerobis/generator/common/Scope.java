@@ -0,0 +1,149 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.generator.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.DataKey;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.PackageDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+
+/**
+ * The names visible at a place in a compilation unit.
+ * <p>
+ * Holds the package, the imports and the types whose member types can be used
+ * with their simple name. Static imports are ignored. The scope holds no nodes
+ * of the unit, so it can be kept after the unit is gone.
+ */
+final class Scope {
+
+    private static final DataKey<Scope> SCOPE = new DataKey<Scope>() {
+    };
+
+    private final int importCount;
+    private final int typeCount;
+    private final String packageName;
+    private final List<String> singleTypeImports = new ArrayList<>();
+    private final List<String> onDemandImports = new ArrayList<>();
+    private final List<String> enclosingTypes;
+    private final String key;
+
+    private Scope(CompilationUnit cu, List<String> enclosingTypes) {
+        this.importCount = cu.getImports().size();
+        this.typeCount = cu.getTypes().size();
+        this.packageName = cu.getPackageDeclaration().map(PackageDeclaration::getNameAsString).orElse("");
+        for (ImportDeclaration imp : cu.getImports()) {
+            if (!imp.isStatic()) {
+                (imp.isAsterisk() ? onDemandImports : singleTypeImports).add(imp.getNameAsString());
+            }
+        }
+        this.enclosingTypes = enclosingTypes;
+        this.key = createKey();
+    }
+
+    /**
+     * Creates the scope of the top level of a compilation unit.
+     * <p>
+     * The member types of the top level types are visible. The scope is stored
+     * in the unit and created again when imports or types are added or removed.
+     *
+     * @param cu
+     *            the compilation unit
+     * @return the scope
+     */
+    static Scope of(CompilationUnit cu) {
+        if (cu.containsData(SCOPE)) {
+            Scope scope = cu.getData(SCOPE);
+            if (scope.importCount == cu.getImports().size() && scope.typeCount == cu.getTypes().size()) {
+                return scope;
+            }
+        }
+        List<String> enclosing = new ArrayList<>(cu.getTypes().size());
+        for (TypeDeclaration<?> type : cu.getTypes()) {
+            enclosing.add(qualify(cu, type.getNameAsString()));
+        }
+        Scope scope = new Scope(cu, enclosing);
+        cu.setData(SCOPE, scope);
+        return scope;
+    }
+
+    /**
+     * Creates the scope inside a type declaration.
+     *
+     * @param cu
+     *            the compilation unit with the declaration
+     * @param enclosingTypes
+     *            binary names of the type and the types enclosing it
+     * @return the scope
+     */
+    static Scope of(CompilationUnit cu, List<String> enclosingTypes) {
+        return new Scope(cu, enclosingTypes);
+    }
+
+    private static String qualify(CompilationUnit cu, String name) {
+        return cu.getPackageDeclaration().map(p -> p.getNameAsString() + '.' + name).orElse(name);
+    }
+
+    private String createKey() {
+        StringBuilder result = new StringBuilder(packageName);
+        singleTypeImports.forEach(i -> result.append(';').append(i));
+        onDemandImports.forEach(i -> result.append(';').append(i).append(".*"));
+        enclosingTypes.forEach(t -> result.append(':').append(t));
+        return result.toString();
+    }
+
+    /**
+     * Returns a key that is equal for scopes with the same visible names.
+     *
+     * @return the cache key
+     */
+    String key() {
+        return key;
+    }
+
+    String packageName() {
+        return packageName;
+    }
+
+    /**
+     * Returns the qualified name of the single type import for a simple name.
+     *
+     * @param name
+     *            simple name of the type
+     * @return the imported name wrapped in an optional
+     */
+    Optional<String> singleTypeImport(String name) {
+        for (String imp : singleTypeImports) {
+            int start = imp.length() - name.length();
+            if (start > 0 && imp.charAt(start - 1) == '.' && imp.endsWith(name)) {
+                return Optional.of(imp);
+            }
+        }
+        return Optional.empty();
+    }
+
+    List<String> onDemandImports() {
+        return onDemandImports;
+    }
+
+    List<String> enclosingTypes() {
+        return enclosingTypes;
+    }
+}
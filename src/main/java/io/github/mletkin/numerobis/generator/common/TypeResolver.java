@@ -0,0 +1,400 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.generator.common;
+
+import static java.util.Collections.emptyList;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+
+/**
+ * Resolves type names used in a compilation unit.
+ * <p>
+ * Names are resolved like the compiler does, against the types declared in the
+ * project sources and the classes that can be loaded:
+ * <ul>
+ * <li>member types of the types in the unit
+ * <li>single type imports
+ * <li>types in the package of the unit
+ * <li>type import on demand ({@code import java.util.*;})
+ * <li>classes in {@code java.lang}
+ * <li>fully qualified names and names of nested types
+ * </ul>
+ * Types declared in the sources are looked up in the {@link DeclaredTypes}
+ * index first, their supertypes are resolved from the sources too. Other
+ * classes are loaded without initialization. Resolved names are cached by the
+ * imports of the unit and the name, loaded classes by their binary name and
+ * subtype checks by both types. All caches keep negative results. One instance
+ * is meant to be shared by all files of a run and may be used by concurrent
+ * threads.
+ */
+public class TypeResolver {
+
+    private final ClassLoader loader;
+    private final DeclaredTypes declaredTypes;
+    private final Map<String, Optional<String>> names = new ConcurrentHashMap<>();
+    private final Map<String, Optional<Class<?>>> classes = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> subtypes = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a resolver that loads classes with the given class loader.
+     *
+     * @param loader
+     *            class loader for the classes referenced by the sources
+     */
+    public TypeResolver(ClassLoader loader) {
+        this(loader, DeclaredTypes.none());
+    }
+
+    /**
+     * Creates a resolver for the types declared in the sources and the classes
+     * of a class loader.
+     *
+     * @param loader
+     *            class loader for the classes referenced by the sources
+     * @param declaredTypes
+     *            index of the types declared in the sources
+     */
+    public TypeResolver(ClassLoader loader, DeclaredTypes declaredTypes) {
+        this.loader = loader;
+        this.declaredTypes = declaredTypes;
+    }
+
+    /**
+     * Creates a resolver that uses the class loader of the generator.
+     * <p>
+     * Each call returns a new instance, the caches are not kept beyond the use
+     * of the resolver.
+     *
+     * @return a new resolver
+     */
+    public static TypeResolver defaultResolver() {
+        return new TypeResolver(TypeResolver.class.getClassLoader());
+    }
+
+    /**
+     * Returns the index of the types declared in the sources.
+     *
+     * @return the index
+     */
+    public DeclaredTypes declaredTypes() {
+        return declaredTypes;
+    }
+
+    /**
+     * Checks whether a type implements {@code Collection}.
+     *
+     * @param type
+     *            type to check
+     * @param cu
+     *            compilation unit that uses the type
+     * @return {@code true} if the type implements {@code Collection}
+     */
+    public boolean isCollection(Type type, CompilationUnit cu) {
+        return extendsInterface(type, Collection.class, cu);
+    }
+
+    /**
+     * Checks whether a type is a subtype of a class or interface.
+     *
+     * @param type
+     *            type to check
+     * @param clazz
+     *            class or interface the type should extend
+     * @param cu
+     *            compilation unit that uses the type
+     * @return {@code true} if the type can be resolved and extends the class
+     */
+    public boolean extendsInterface(Type type, Class<?> clazz, CompilationUnit cu) {
+        return resolveName(type, Scope.of(cu)).filter(n -> isSubtype(n, clazz)).isPresent();
+    }
+
+    /**
+     * Resolves a type used in a compilation unit to a loaded class.
+     * <p>
+     * Only class and interface types are resolved, type arguments are ignored.
+     * Types declared in the sources are loaded too, if the class loader knows
+     * them.
+     *
+     * @param type
+     *            type to resolve
+     * @param cu
+     *            compilation unit that uses the type
+     * @return the class wrapped in an optional
+     */
+    public Optional<Class<?>> resolve(Type type, CompilationUnit cu) {
+        return resolveName(type, Scope.of(cu)).flatMap(this::load);
+    }
+
+    /**
+     * Determines the element type of a collection type.
+     * <p>
+     * For library types this is the first type argument. For types declared in
+     * the sources the supertypes are followed to the first library collection,
+     * type parameters are replaced by their arguments on the way. Types that
+     * are not visible in the unit are qualified.
+     *
+     * @param type
+     *            type of the collection
+     * @param cu
+     *            compilation unit that uses the type
+     * @return the element type wrapped in an optional, empty if the type is no
+     *         collection or the element type is unknown
+     */
+    public Optional<Type> elementType(Type type, CompilationUnit cu) {
+        Scope scope = Scope.of(cu);
+        Optional<String> name = resolveName(type, scope).filter(n -> isSubtype(n, Collection.class));
+        if (!name.isPresent()) {
+            return Optional.empty();
+        }
+        List<Type> arguments = typeArguments(type.asClassOrInterfaceType());
+        Optional<DeclaredType> declared = declaredTypes.find(name.get());
+        if (declared.isPresent()) {
+            return elementType(declared.get(), bindings(declared.get(), arguments), scope, new HashSet<>());
+        }
+        return arguments.stream().findFirst();
+    }
+
+    /**
+     * Checks whether a type is declared in the sources and can be created with
+     * a constructor without parameters.
+     *
+     * @param type
+     *            type to check
+     * @param cu
+     *            compilation unit that uses the type
+     * @return {@code true} if the sources declare a usable default constructor
+     */
+    public boolean declaresDefaultConstructor(Type type, CompilationUnit cu) {
+        return resolveName(type, Scope.of(cu)) //
+                .flatMap(declaredTypes::find) //
+                .filter(DeclaredType::hasDefaultConstructor) //
+                .isPresent();
+    }
+
+    /**
+     * Collects the source files of the declared types used by the fields of a
+     * compilation unit.
+     * <p>
+     * The generated code depends on these files. The declared supertypes of the
+     * types are followed, the element type of a collection may be defined
+     * there.
+     *
+     * @param cu
+     *            compilation unit with the fields
+     * @return the paths of the source files
+     */
+    public Set<Path> sourceFiles(CompilationUnit cu) {
+        Scope scope = Scope.of(cu);
+        Set<String> found = new HashSet<>();
+        for (FieldDeclaration field : cu.findAll(FieldDeclaration.class)) {
+            resolveName(field.getElementType(), scope).ifPresent(name -> collectDeclared(name, found));
+        }
+        Set<Path> result = new HashSet<>();
+        found.forEach(name -> declaredTypes.file(name).ifPresent(result::add));
+        return result;
+    }
+
+    private void collectDeclared(String binaryName, Set<String> found) {
+        Optional<DeclaredType> declared = declaredTypes.find(binaryName);
+        if (declared.isPresent() && found.add(binaryName)) {
+            for (ClassOrInterfaceType supertype : declared.get().supertypes()) {
+                resolveName(supertype, declared.get().scope()).ifPresent(name -> collectDeclared(name, found));
+            }
+        }
+    }
+
+    private Optional<Type> elementType(DeclaredType declared, Map<String, Type> bindings, Scope target,
+            Set<String> visited) {
+        if (!visited.add(declared.binaryName())) {
+            return Optional.empty();
+        }
+        for (ClassOrInterfaceType supertype : declared.supertypes()) {
+            Optional<String> name = resolveName(supertype, declared.scope()) //
+                    .filter(n -> isSubtype(n, Collection.class));
+            if (name.isPresent()) {
+                List<Type> arguments = new ArrayList<>();
+                for (Type argument : typeArguments(supertype)) {
+                    Optional<Type> bound = substitute(argument, declared, bindings, target);
+                    if (!bound.isPresent()) {
+                        return Optional.empty();
+                    }
+                    arguments.add(bound.get());
+                }
+                Optional<DeclaredType> superDeclared = declaredTypes.find(name.get());
+                return superDeclared.isPresent() //
+                        ? elementType(superDeclared.get(), bindings(superDeclared.get(), arguments), target, visited)
+                        : arguments.stream().findFirst();
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static List<Type> typeArguments(ClassOrInterfaceType type) {
+        return type.getTypeArguments().<List<Type>> map(a -> a).orElse(emptyList());
+    }
+
+    private static Map<String, Type> bindings(DeclaredType declared, List<Type> arguments) {
+        Map<String, Type> result = new HashMap<>();
+        List<String> parameters = declared.typeParameters();
+        if (parameters.size() == arguments.size()) {
+            for (int n = 0; n < parameters.size(); n++) {
+                result.put(parameters.get(n), arguments.get(n));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Translates a type used in a declaration for use in the target unit.
+     * <p>
+     * Type parameters are replaced by their arguments, an unbound type parameter
+     * yields an empty result. Class types are qualified, if their name is not
+     * resolved to the same type in the target unit.
+     */
+    private Optional<Type> substitute(Type type, DeclaredType declared, Map<String, Type> bindings, Scope target) {
+        if (!type.isClassOrInterfaceType()) {
+            return Optional.of(type.clone());
+        }
+        ClassOrInterfaceType classType = type.asClassOrInterfaceType();
+        String name = classType.getNameAsString();
+        if (!classType.getScope().isPresent() && declared.typeParameters().contains(name)) {
+            return Optional.ofNullable(bindings.get(name));
+        }
+        Optional<String> resolved = resolveName(classType, declared.scope());
+        if (!resolved.isPresent() || resolved.equals(resolveName(classType, target))) {
+            return Optional.of(classType.clone());
+        }
+        String[] parts = resolved.get().replace('$', '.').split("\\.");
+        ClassOrInterfaceType qualifier = null;
+        for (int n = 0; n < parts.length - 1; n++) {
+            qualifier = new ClassOrInterfaceType(qualifier, parts[n]);
+        }
+        return Optional.of(classType.clone().setScope(qualifier));
+    }
+
+    private Optional<String> resolveName(Type type, Scope scope) {
+        if (!type.isClassOrInterfaceType()) {
+            return Optional.empty();
+        }
+        String name = nameWithScope(type.asClassOrInterfaceType());
+        return names.computeIfAbsent(scope.key() + '#' + name, k -> resolveName(name, scope));
+    }
+
+    private static String nameWithScope(ClassOrInterfaceType type) {
+        return type.getScope().map(s -> nameWithScope(s) + '.').orElse("") + type.getNameAsString();
+    }
+
+    private Optional<String> resolveName(String name, Scope scope) {
+        int dot = name.indexOf('.');
+        if (dot < 0) {
+            return resolveSimpleName(name, scope);
+        }
+        Optional<String> outer = resolveSimpleName(name.substring(0, dot), scope);
+        return outer.isPresent() //
+                ? Optional.of(outer.get() + name.substring(dot).replace('.', '$')).filter(this::exists)
+                : resolveQualified(name);
+    }
+
+    private Optional<String> resolveSimpleName(String name, Scope scope) {
+        for (String enclosing : scope.enclosingTypes()) {
+            if (declaredTypes.find(enclosing + '$' + name).isPresent()) {
+                return Optional.of(enclosing + '$' + name);
+            }
+        }
+        Optional<String> imported = scope.singleTypeImport(name);
+        if (imported.isPresent()) {
+            return resolveQualified(imported.get());
+        }
+        String local = scope.packageName().isEmpty() ? name : scope.packageName() + '.' + name;
+        if (exists(local)) {
+            return Optional.of(local);
+        }
+        for (String onDemand : scope.onDemandImports()) {
+            Optional<String> result = resolveQualified(onDemand + '.' + name);
+            if (result.isPresent()) {
+                return result;
+            }
+        }
+        return Optional.of("java.lang." + name).filter(this::exists);
+    }
+
+    /**
+     * Finds the binary name for a canonical name, which may denote a nested type.
+     */
+    private Optional<String> resolveQualified(String name) {
+        String candidate = name;
+        for (int dot = name.lastIndexOf('.'); !exists(candidate) && dot > 0; dot = name.lastIndexOf('.', dot - 1)) {
+            candidate = name.substring(0, dot) + name.substring(dot).replace('.', '$');
+        }
+        return Optional.of(candidate).filter(this::exists);
+    }
+
+    private boolean exists(String binaryName) {
+        return declaredTypes.find(binaryName).isPresent() || load(binaryName).isPresent();
+    }
+
+    private boolean isSubtype(String binaryName, Class<?> clazz) {
+        String key = clazz.getName() + '>' + binaryName;
+        Boolean result = subtypes.get(key);
+        if (result == null) {
+            result = isSubtype(binaryName, clazz, new HashSet<>());
+            subtypes.put(key, result);
+        }
+        return result;
+    }
+
+    private boolean isSubtype(String binaryName, Class<?> clazz, Set<String> visited) {
+        Optional<DeclaredType> declared = declaredTypes.find(binaryName);
+        if (!declared.isPresent()) {
+            return load(binaryName).filter(clazz::isAssignableFrom).isPresent();
+        }
+        if (!visited.add(binaryName)) {
+            return false;
+        }
+        for (ClassOrInterfaceType supertype : declared.get().supertypes()) {
+            if (resolveName(supertype, declared.get().scope()).filter(n -> isSubtype(n, clazz, visited)).isPresent()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Optional<Class<?>> load(String binaryName) {
+        return classes.computeIfAbsent(binaryName, this::forName);
+    }
+
+    private Optional<Class<?>> forName(String binaryName) {
+        try {
+            return Optional.of(Class.forName(binaryName, false, loader));
+        } catch (ClassNotFoundException | LinkageError e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -1,16 +1,12 @@
 package io.github.mletkin.numerobis.generator.mutator;
 
-import java.util.Optional;
 import java.util.stream.Stream;
 
-import com.github.javaparser.ast.body.FieldDeclaration;
 import com.github.javaparser.ast.body.VariableDeclarator;
 
-import io.github.mletkin.numerobis.annotation.GenerateListMutator;
 import io.github.mletkin.numerobis.common.Util;
+import io.github.mletkin.numerobis.generator.FieldModel;
 import io.github.mletkin.numerobis.generator.ListMutatorVariant;
-import io.github.mletkin.numerobis.generator.common.StringExtractor;
-import io.github.mletkin.numerobis.generator.common.VariantExtractor;
 
 /**
  * Generator for lust field mutator descriptor objects.
@@ -23,14 +19,14 @@ import io.github.mletkin.numerobis.generator.common.VariantExtractor;
 public class ListMutatorDescriptorGenerator {
     private static ListMutatorVariant[] DEFAULT = { ListMutatorVariant.OBJECT };
 
-    private FieldDeclaration field;
+    private FieldModel field;
     private ListMutatorVariant[] variants;
     private String mutatorPrefix;
 
-    public ListMutatorDescriptorGenerator(FieldDeclaration field, ListMutatorVariant[] variants, String mutatoPrefix) {
+    public ListMutatorDescriptorGenerator(FieldModel field, ListMutatorVariant[] variants, String mutatoPrefix) {
         this.field = field;
         this.variants = Util.firstNotEmpty( //
-                new VariantExtractor(GenerateListMutator.class).variants(field), //
+                field.listMutatorVariants(), //
                 variants) //
                 .orElse(DEFAULT);
         this.mutatorPrefix = mutatoPrefix;
@@ -42,7 +38,7 @@ public class ListMutatorDescriptorGenerator {
      * @return a stream of method descriptors
      */
     public Stream<MutatorMethodDescriptor> stream() {
-        return field.getVariables().stream() //
+        return field.variables().stream() //
                 .flatMap(this::toVariants);
     }
 
@@ -57,20 +53,18 @@ public class ListMutatorDescriptorGenerator {
                 .withMethodName(methodName(vd)) //
                 .withParameterName(vd.getNameAsString()) //
                 .withParameterType(vd.getType()) //
+                .withElementType(field.elementType(vd).orElse(null)) //
+                .withCollectionKind(field.collectionKind()) //
                 .withVariant(variant) //
                 .build();
     }
 
     private String methodName(VariableDeclarator vd) {
-        return customName().orElseGet(() -> standardMutatorName(vd));
+        return field.listMutatorName().orElseGet(() -> standardMutatorName(vd));
     }
 
     private String standardMutatorName(VariableDeclarator vd) {
         return mutatorPrefix + Util.firstLetterUppercase(vd.getNameAsString());
     }
 
-    private Optional<String> customName() {
-        return new StringExtractor(GenerateListMutator.class, "name").value(field);
-    }
-
 }
@@ -15,16 +15,13 @@
  */
 package io.github.mletkin.numerobis.generator.mutator;
 
-import java.util.Optional;
 import java.util.stream.Stream;
 
-import com.github.javaparser.ast.body.FieldDeclaration;
 import com.github.javaparser.ast.body.VariableDeclarator;
 
-import io.github.mletkin.numerobis.annotation.GenerateMutator;
 import io.github.mletkin.numerobis.common.Util;
+import io.github.mletkin.numerobis.generator.FieldModel;
 import io.github.mletkin.numerobis.generator.ListMutatorVariant;
-import io.github.mletkin.numerobis.generator.common.StringExtractor;
 
 /**
  * Generator for mutator descriptor objects.
@@ -32,10 +29,10 @@ import io.github.mletkin.numerobis.generator.common.StringExtractor;
  * One declaration can contain more than one variable ( e.g. {@code int x,y;})
  */
 public class MutatorDescriptorGenerator {
-    private FieldDeclaration field;
+    private FieldModel field;
     private String mutatorPrefix;
 
-    public MutatorDescriptorGenerator(FieldDeclaration field, String mutatorPrefix) {
+    public MutatorDescriptorGenerator(FieldModel field, String mutatorPrefix) {
         this.field = field;
         this.mutatorPrefix = mutatorPrefix;
     }
@@ -46,7 +43,7 @@ public class MutatorDescriptorGenerator {
      * @return a stream of {@code MutatorMethodDescriptor} objects
      */
     public Stream<MutatorMethodDescriptor> stream() {
-        return field.getVariables().stream() //
+        return field.variables().stream() //
                 .flatMap(this::toVariants);
     }
 
@@ -64,15 +61,11 @@ public class MutatorDescriptorGenerator {
     }
 
     private String methodName(VariableDeclarator vd) {
-        return customName().orElseGet(() -> standardMutatorName(vd));
+        return field.mutatorName().orElseGet(() -> standardMutatorName(vd));
     }
 
     private String standardMutatorName(VariableDeclarator vd) {
         return mutatorPrefix + Util.firstLetterUppercase(vd.getNameAsString());
     }
 
-    private Optional<String> customName() {
-        return new StringExtractor(GenerateMutator.class, "name").value(field);
-    }
-
 }
@@ -17,6 +17,7 @@ package io.github.mletkin.numerobis.generator.mutator;
 
 import com.github.javaparser.ast.type.Type;
 
+import io.github.mletkin.numerobis.generator.FieldModel.CollectionKind;
 import io.github.mletkin.numerobis.generator.ListMutatorVariant;
 
 /**
@@ -27,6 +28,8 @@ public class MutatorMethodDescriptor {
     private String methodName;
     private String parameterName;
     private Type parameterType; // actually the field type
+    private Type elementType;
+    private CollectionKind collectionKind = CollectionKind.NONE;
     private ListMutatorVariant variant;
 
     public String methodName() {
@@ -41,6 +44,14 @@ public class MutatorMethodDescriptor {
         return parameterType;
     }
 
+    public Type elementType() {
+        return elementType;
+    }
+
+    public CollectionKind collectionKind() {
+        return collectionKind;
+    }
+
     public ListMutatorVariant variant() {
         return variant;
     }
@@ -68,6 +79,16 @@ public class MutatorMethodDescriptor {
             return this;
         }
 
+        public Builder withElementType(Type elementType) {
+            product.elementType = elementType;
+            return this;
+        }
+
+        public Builder withCollectionKind(CollectionKind collectionKind) {
+            product.collectionKind = collectionKind;
+            return this;
+        }
+
         public Builder withVariant(ListMutatorVariant variant) {
             product.variant = variant;
             return this;
@@ -0,0 +1,171 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+/**
+ * Checks the raw content of a java file for annotation names.
+ * <p>
+ * Used to avoid parsing files that can not contain one of the annotations.
+ * The file content is scanned as bytes, no {@code String} is created. The
+ * simple name is sufficient, it is contained in the qualified name as well.
+ * <p>
+ * The scan is inconclusive if the file
+ * <ul>
+ * <li>seems not to be encoded ASCII compatible (BOM or zero bytes)
+ * <li>contains unicode escapes that might hide an annotation name
+ * <li>can not be read
+ * </ul>
+ * Inconclusive files are treated as candidates.
+ */
+class AnnotationPrefilter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final ThreadLocal<ByteBuffer> BUFFER = //
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(BUFFER_SIZE));
+
+    private byte[][] names;
+    private int overlap;
+
+    /**
+     * Creates a prefilter for a set of annotations.
+     *
+     * @param annotations
+     *            annotation classes to look for
+     */
+    @SafeVarargs
+    AnnotationPrefilter(Class<? extends Annotation>... annotations) {
+        this.names = Stream.of(annotations) //
+                .map(Class::getSimpleName) //
+                .map(name -> name.getBytes(StandardCharsets.US_ASCII)) //
+                .toArray(byte[][]::new);
+        this.overlap = Stream.of(names).mapToInt(name -> name.length).max().orElse(0) + 1;
+    }
+
+    /**
+     * Checks whether a file might contain one of the annotations.
+     * <p>
+     * The file is read in chunks into a buffer of the thread. The end of a chunk
+     * is kept for the next one, so names across the chunk border are found. The
+     * file is not mapped, a mapping would lock the file on some platforms until
+     * it is garbage collected.
+     *
+     * @param file
+     *            path of the java file
+     * @return {@code false} if the file definitely contains none of the
+     *         annotations
+     */
+    boolean isCandidate(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = BUFFER.get();
+            buffer.clear();
+            boolean start = true;
+            boolean end = false;
+            while (!end) {
+                end = fill(channel, buffer);
+                buffer.flip();
+                if (isCandidate(buffer, start)) {
+                    return true;
+                }
+                start = false;
+                buffer.position(Math.max(0, buffer.limit() - overlap));
+                buffer.compact();
+            }
+            return false;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Reads until the buffer is full or the end of the file is reached.
+     *
+     * @return {@code true} if the end of the file was reached
+     */
+    private static boolean fill(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Scans the content for annotation names.
+     *
+     * @param content
+     *            file content from position to limit
+     * @return {@code true} if a name was found or the scan is inconclusive
+     */
+    boolean isCandidate(ByteBuffer content) {
+        return isCandidate(content, true);
+    }
+
+    private boolean isCandidate(ByteBuffer content, boolean atStartOfFile) {
+        int start = content.position();
+        int end = content.limit();
+        if (atStartOfFile && end - start >= 2 && isByteOrderMark(content.get(start), content.get(start + 1))) {
+            return true;
+        }
+        for (int n = start; n < end; n++) {
+            byte b = content.get(n);
+            if (b == 0) {
+                return true;
+            }
+            if (b == '\\' && n + 1 < end && content.get(n + 1) == 'u') {
+                return true;
+            }
+            if (matchesName(content, n, end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isByteOrderMark(byte first, byte second) {
+        return (first == (byte) 0xFE && second == (byte) 0xFF) || (first == (byte) 0xFF && second == (byte) 0xFE);
+    }
+
+    private boolean matchesName(ByteBuffer content, int position, int end) {
+        for (byte[] name : names) {
+            if (matches(content, position, end, name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(ByteBuffer content, int position, int end, byte[] name) {
+        if (end - position < name.length) {
+            return false;
+        }
+        for (int n = 0; n < name.length; n++) {
+            if (content.get(position + n) != name[n]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
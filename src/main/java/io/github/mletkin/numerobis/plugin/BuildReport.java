@@ -0,0 +1,222 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import io.github.mletkin.numerobis.common.Util;
+import io.github.mletkin.numerobis.plugin.Metrics.Member;
+
+/**
+ * Machine readable report of a generator run in JSON format.
+ * <ul>
+ * <li>the effective configuration
+ * <li>the totals of scanned, parsed, skipped and written files
+ * <li>one record for each product file with generated code
+ * </ul>
+ * Values may be strings, numbers, booleans, collections, maps or {@code null}.
+ */
+class BuildReport {
+
+    private Map<String, Object> configuration = new LinkedHashMap<>();
+    private Map<String, Object> totals = new LinkedHashMap<>();
+    private List<Map<String, Object>> products = new ArrayList<>();
+
+    /**
+     * Adds a configuration value.
+     *
+     * @param name
+     *            name of the configuration parameter
+     * @param value
+     *            the effective value
+     * @return the report instance
+     */
+    BuildReport configuration(String name, Object value) {
+        configuration.put(name, value);
+        return this;
+    }
+
+    /**
+     * Adds a total value.
+     *
+     * @param name
+     *            name of the total
+     * @param value
+     *            the value
+     * @return the report instance
+     */
+    BuildReport total(String name, Object value) {
+        totals.put(name, value);
+        return this;
+    }
+
+    /**
+     * Adds the parse totals and the product records from the measurements.
+     *
+     * @param metrics
+     *            the measurements of the run
+     * @return the report instance
+     */
+    BuildReport products(Metrics metrics) {
+        List<Metrics.Entry> entries = metrics.entries();
+        totals.put("filesParsed", entries.stream().filter(Metrics.Entry::parsed).count());
+        totals.put("bytesWritten", entries.stream().mapToLong(Metrics.Entry::bytesWritten).sum());
+        totals.put("walkMillis", millis(metrics.walkNanos()));
+        totals.put("processMillis", millis(entries.stream().mapToLong(Metrics.Entry::total).sum()));
+        totals.put("allocatedBytes", entries.stream().mapToLong(e -> Math.max(0, e.allocatedBytes())).sum());
+        totals.put("peakLiveUnits", metrics.peakUnits());
+        totals.put("peakHeapBytes", metrics.peakHeapBytes());
+        entries.stream().filter(Metrics.Entry::generated).map(BuildReport::product).forEach(products::add);
+        return this;
+    }
+
+    private static Map<String, Object> product(Metrics.Entry entry) {
+        Map<String, Object> product = new LinkedHashMap<>();
+        product.put("file", entry.file().getPath());
+        product.put("productType", entry.productType());
+        product.put("builderLocation", entry.location() == null ? null : entry.location().name());
+        product.put("builderFile", entry.builderPath() == null ? null : entry.builderPath().toString());
+        for (Member member : Member.values()) {
+            product.put(member.label(), entry.members(member));
+        }
+        product.put("bytesWritten", entry.bytesWritten());
+        product.put("millis", millis(entry.total()));
+        product.put("allocatedBytes", entry.allocatedBytes() < 0 ? null : entry.allocatedBytes());
+        product.put("astNodes", entry.astNodes());
+        return product;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    /**
+     * Writes the report to a file.
+     *
+     * @param path
+     *            path of the report file
+     * @throws IOException
+     *             if the file can not be written
+     */
+    void write(Path path) throws IOException {
+        Util.createParentPath(path);
+        Files.write(path, toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates the JSON representation of the report.
+     *
+     * @return the JSON document
+     */
+    String toJson() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("configuration", configuration);
+        report.put("totals", totals);
+        report.put("products", products);
+        StringBuilder json = new StringBuilder();
+        append(json, report, "");
+        return json.append('\n').toString();
+    }
+
+    private static void append(StringBuilder json, Object value, String indent) {
+        if (value == null) {
+            json.append("null");
+        } else if (value instanceof Map) {
+            appendObject(json, (Map<?, ?>) value, indent);
+        } else if (value instanceof Collection) {
+            appendArray(json, (Collection<?>) value, indent);
+        } else if (value instanceof Double || value instanceof Float) {
+            json.append(String.format(Locale.ROOT, "%.3f", ((Number) value).doubleValue()));
+        } else if (value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+        } else {
+            appendString(json, value.toString());
+        }
+    }
+
+    private static void appendObject(StringBuilder json, Map<?, ?> map, String indent) {
+        if (map.isEmpty()) {
+            json.append("{}");
+            return;
+        }
+        String inner = indent + "  ";
+        json.append("{\n");
+        for (Iterator<? extends Map.Entry<?, ?>> it = map.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<?, ?> entry = it.next();
+            json.append(inner);
+            appendString(json, entry.getKey().toString());
+            json.append(": ");
+            append(json, entry.getValue(), inner);
+            json.append(it.hasNext() ? ",\n" : "\n");
+        }
+        json.append(indent).append('}');
+    }
+
+    private static void appendArray(StringBuilder json, Collection<?> list, String indent) {
+        if (list.isEmpty()) {
+            json.append("[]");
+            return;
+        }
+        String inner = indent + "  ";
+        json.append("[\n");
+        for (Iterator<?> it = list.iterator(); it.hasNext();) {
+            json.append(inner);
+            append(json, it.next(), inner);
+            json.append(it.hasNext() ? ",\n" : "\n");
+        }
+        json.append(indent).append(']');
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (char c : value.toCharArray()) {
+            switch (c) {
+            case '"':
+                json.append("\\\"");
+                break;
+            case '\\':
+                json.append("\\\\");
+                break;
+            case '\n':
+                json.append("\\n");
+                break;
+            case '\r':
+                json.append("\\r");
+                break;
+            case '\t':
+                json.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    json.append(String.format("\\u%04x", (int) c));
+                } else {
+                    json.append(c);
+                }
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,422 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import io.github.mletkin.numerobis.common.Util;
+
+/**
+ * Persistent state of the last generator run used for incremental generation.
+ * <p>
+ * For each processed java file the state contains
+ * <ul>
+ * <li>size, modification time and content hash after processing
+ * <li>the files written for the java file, except for the file itself
+ * <li>size, modification time and content hash of the source files that
+ * declare types the generation depended on
+ * </ul>
+ * The state is bound to the hash of the effective configuration, the version of
+ * the generator and the jar files of the class path. A state with a different
+ * configuration hash is discarded on loading. The state also holds a hash of
+ * the paths of all java files, except for the generated ones. If a java file
+ * is added or removed, a type name may resolve differently and all java files
+ * are processed again.
+ */
+class BuildState {
+
+    private static final int FORMAT_VERSION = 2;
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private String configuration;
+    private String sources = "";
+    private Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * State of a single processed java file or of a file it depends on.
+     */
+    private static class Entry {
+        private long size;
+        private long modified;
+        private byte[] hash;
+        private List<String> outputs = new ArrayList<>();
+        private Map<String, Entry> dependencies = new HashMap<>();
+    }
+
+    private BuildState(String configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Creates an empty state for the given configuration.
+     *
+     * @param settings
+     *            effective configuration
+     * @return an empty state
+     */
+    static BuildState empty(MojoSettings settings) {
+        return empty(settings, "");
+    }
+
+    /**
+     * Creates an empty state for the given configuration and environment.
+     *
+     * @param settings
+     *            effective configuration
+     * @param environment
+     *            generator version and class path fingerprint
+     * @return an empty state
+     */
+    static BuildState empty(MojoSettings settings, String environment) {
+        String configuration = settings.toString() + ", environment: " + environment;
+        return new BuildState(hash(configuration.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Describes the environment of a run that influences the generated code.
+     * <p>
+     * Jar files are described by path, size and modification time. Directories
+     * are described by their path only, the output directory of the project
+     * changes with every compilation and holds the classes of the sources.
+     *
+     * @param version
+     *            version of the generator, may be {@code null}
+     * @param classpath
+     *            elements of the compile class path, may be {@code null}
+     * @return the description
+     */
+    static String environment(String version, Collection<String> classpath) {
+        StringBuilder result = new StringBuilder("version ").append(version);
+        for (String element : Util.stream(classpath).collect(Collectors.toList())) {
+            File file = new File(element);
+            result.append(';').append(key(file));
+            if (file.isFile()) {
+                result.append(':').append(file.length()).append(':').append(file.lastModified());
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Loads the state from a file.
+     * <p>
+     * An empty state is returned if the file does not exist, can not be read or
+     * was written with a different configuration.
+     *
+     * @param stateFile
+     *            file with the stored state
+     * @param settings
+     *            effective configuration
+     * @return the loaded state
+     */
+    static BuildState load(Path stateFile, MojoSettings settings) {
+        return load(stateFile, settings, "");
+    }
+
+    /**
+     * Loads the state from a file.
+     * <p>
+     * An empty state is returned if the file does not exist, can not be read or
+     * was written with a different configuration or environment.
+     *
+     * @param stateFile
+     *            file with the stored state
+     * @param settings
+     *            effective configuration
+     * @param environment
+     *            generator version and class path fingerprint
+     * @return the loaded state
+     */
+    static BuildState load(Path stateFile, MojoSettings settings, String environment) {
+        BuildState state = empty(settings, environment);
+        if (!Files.isRegularFile(stateFile)) {
+            return state;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(stateFile)))) {
+            if (in.readInt() != FORMAT_VERSION || !in.readUTF().equals(state.configuration)) {
+                return state;
+            }
+            state.sources = in.readUTF();
+            for (int n = in.readInt(); n > 0; n--) {
+                String path = in.readUTF();
+                state.entries.put(path, readEntry(in));
+            }
+            return state;
+        } catch (IOException e) {
+            return empty(settings, environment);
+        }
+    }
+
+    private static Entry readEntry(DataInputStream in) throws IOException {
+        Entry entry = new Entry();
+        entry.size = in.readLong();
+        entry.modified = in.readLong();
+        entry.hash = new byte[in.readInt()];
+        in.readFully(entry.hash);
+        for (int n = in.readInt(); n > 0; n--) {
+            entry.outputs.add(in.readUTF());
+        }
+        for (int n = in.readInt(); n > 0; n--) {
+            String path = in.readUTF();
+            entry.dependencies.put(path, readEntry(in));
+        }
+        return entry;
+    }
+
+    /**
+     * Stores the state in a file.
+     *
+     * @param stateFile
+     *            file to store the state in
+     * @throws IOException
+     *             if the file can not be written
+     */
+    void save(Path stateFile) throws IOException {
+        Util.createParentPath(stateFile);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(stateFile)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(configuration);
+            out.writeUTF(sources);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                out.writeUTF(e.getKey());
+                writeEntry(out, e.getValue());
+            }
+        }
+    }
+
+    private static void writeEntry(DataOutputStream out, Entry entry) throws IOException {
+        out.writeLong(entry.size);
+        out.writeLong(entry.modified);
+        out.writeInt(entry.hash.length);
+        out.write(entry.hash);
+        out.writeInt(entry.outputs.size());
+        for (String output : entry.outputs) {
+            out.writeUTF(output);
+        }
+        out.writeInt(entry.dependencies.size());
+        for (Map.Entry<String, Entry> e : entry.dependencies.entrySet()) {
+            out.writeUTF(e.getKey());
+            writeEntry(out, e.getValue());
+        }
+    }
+
+    /**
+     * Compares the java files with the files of the last run.
+     * <p>
+     * The generated files of the last run are not compared. If a file was added
+     * or removed, all java files are marked for processing, the files written
+     * for them are kept for the removal of stale files.
+     *
+     * @param files
+     *            all existing java files
+     */
+    void compareSources(Collection<File> files) {
+        Set<String> generated = entries.values().stream() //
+                .flatMap(e -> e.outputs.stream()) //
+                .collect(Collectors.toSet());
+        String current = hash(files.stream() //
+                .map(BuildState::key) //
+                .filter(k -> !generated.contains(k)) //
+                .sorted() //
+                .collect(Collectors.joining("\n")) //
+                .getBytes(StandardCharsets.UTF_8));
+        if (!current.equals(sources)) {
+            entries.values().forEach(e -> e.size = -1);
+            sources = current;
+        }
+    }
+
+    /**
+     * Checks whether a java file is unchanged since it was processed last.
+     * <p>
+     * Size and modification time are compared first, the content hash is only
+     * computed if the modification time has changed. All files written for the
+     * java file must still exist, the files it depends on must be unchanged.
+     *
+     * @param file
+     *            java file to check
+     * @return {@code true} if the file needs no processing
+     */
+    boolean isUpToDate(File file) {
+        Entry entry = entries.get(key(file));
+        if (entry == null || !isUnchanged(file, entry)) {
+            return false;
+        }
+        if (!entry.outputs.stream().map(Paths::get).allMatch(Files::exists)) {
+            return false;
+        }
+        return entry.dependencies.entrySet().stream() //
+                .allMatch(e -> isUnchanged(new File(e.getKey()), e.getValue()));
+    }
+
+    private static boolean isUnchanged(File file, Entry entry) {
+        if (!file.isFile() || file.length() != entry.size) {
+            return false;
+        }
+        if (file.lastModified() == entry.modified) {
+            return true;
+        }
+        if (Arrays.equals(hash(file), entry.hash)) {
+            entry.modified = file.lastModified();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Records the state of a processed java file.
+     *
+     * @param file
+     *            the processed java file
+     * @param written
+     *            the files written during processing
+     */
+    void record(File file, Collection<Path> written) {
+        record(file, written, Collections.emptyList());
+    }
+
+    /**
+     * Records the state of a processed java file and the files it depends on.
+     *
+     * @param file
+     *            the processed java file
+     * @param written
+     *            the files written during processing
+     * @param dependencies
+     *            the source files of the types the generation depended on
+     */
+    void record(File file, Collection<Path> written, Collection<Path> dependencies) {
+        Entry entry = entry(file);
+        entry.outputs = written.stream() //
+                .map(BuildState::key) //
+                .filter(p -> !p.equals(key(file))) //
+                .collect(Collectors.toList());
+        for (Path dependency : dependencies) {
+            if (!key(dependency).equals(key(file)) && Files.isRegularFile(dependency)) {
+                entry.dependencies.put(key(dependency), entry(dependency.toFile()));
+            }
+        }
+        entries.put(key(file), entry);
+    }
+
+    private static Entry entry(File file) {
+        Entry entry = new Entry();
+        entry.size = file.length();
+        entry.modified = file.lastModified();
+        entry.hash = hash(file);
+        return entry;
+    }
+
+    /**
+     * Finds the java files that depend on changed files.
+     *
+     * @param changed
+     *            the changed files
+     * @return the java files that depend on at least one of the files
+     */
+    List<File> dependents(Collection<Path> changed) {
+        Set<String> keys = changed.stream().map(BuildState::key).collect(Collectors.toSet());
+        return entries.entrySet().stream() //
+                .filter(e -> e.getValue().dependencies.keySet().stream().anyMatch(keys::contains)) //
+                .map(e -> new File(e.getKey())) //
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Removes the java files that no longer exist from the state.
+     *
+     * @param existing
+     *            the java files that currently exist
+     * @return the files written for the removed java files
+     */
+    List<Path> removeDeleted(Collection<File> existing) {
+        Set<String> keys = existing.stream().map(BuildState::key).collect(Collectors.toSet());
+        List<Path> stale = new ArrayList<>();
+        for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<String, Entry> e = it.next();
+            if (!keys.contains(e.getKey())) {
+                e.getValue().outputs.stream().map(Paths::get).forEach(stale::add);
+                it.remove();
+            }
+        }
+        return stale;
+    }
+
+    private static String key(File file) {
+        return key(file.toPath());
+    }
+
+    private static String key(Path path) {
+        return path.toAbsolutePath().normalize().toString();
+    }
+
+    /**
+     * Computes the content hash of a file.
+     *
+     * @param file
+     *            the file to hash
+     * @return the hash
+     * @throws UncheckedIOException
+     *             if the file can not be read
+     */
+    static byte[] hash(File file) {
+        try {
+            return digest().digest(Files.readAllBytes(file.toPath()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String hash(byte[] content) {
+        StringBuilder result = new StringBuilder();
+        for (byte b : digest().digest(content)) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -17,14 +17,23 @@ package io.github.mletkin.numerobis.plugin;
 
 import static io.github.mletkin.numerobis.common.Util.stream;
 import static java.util.Optional.ofNullable;
+import static java.util.stream.Collectors.toList;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -32,9 +41,12 @@ import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
 
 import io.github.mletkin.numerobis.annotation.GenerateAdder;
 import io.github.mletkin.numerobis.annotation.GenerateListMutator;
+import io.github.mletkin.numerobis.generator.common.DeclaredTypes;
+import io.github.mletkin.numerobis.generator.common.TypeResolver;
 
 /**
  * Entry point for the generator plugin.
@@ -42,11 +54,12 @@ import io.github.mletkin.numerobis.annotation.GenerateListMutator;
  * <li>handles maven plugin specific stuff
  * <li>gathers configuration sessings from the pom
  * <li>walks through the source file tree
- * <li>calls the generator for each java file
+ * <li>calls the generator for each java file in parallel
  * <li>dumps configuration to the log
  * </ul>
  */
-@Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES)
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES, //
+        requiresDependencyResolution = ResolutionScope.COMPILE)
 public class BuilderMojo extends AbstractMojo {
 
     /**
@@ -75,6 +88,30 @@ public class BuilderMojo extends AbstractMojo {
     @Parameter(defaultValue = "${project.compileSourceRoots}", readonly = true, required = true)
     private List<String> compileSourceRoots;
 
+    /**
+     * The compile class path of the project, used to resolve field types.
+     */
+    @Parameter(defaultValue = "${project.compileClasspathElements}", readonly = true)
+    private List<String> compileClasspathElements;
+
+    /**
+     * Glob patterns of the java files to process.
+     * <p>
+     * Patterns are relative to the source directories, the default is
+     * {@code **}{@code /*.java}.
+     */
+    @Parameter
+    private List<String> includes;
+
+    /**
+     * Glob patterns of the files and directories to skip.
+     * <p>
+     * Patterns are relative to the source directories. Matching directories are
+     * not traversed.
+     */
+    @Parameter
+    private List<String> excludes;
+
     /**
      * Where the generated builder classes are stored.
      * <p>
@@ -119,16 +156,300 @@ public class BuilderMojo extends AbstractMojo {
     @Parameter
     private List<GenerateListMutator.Variant> listMutatorVariants;
 
+    /**
+     * Encoding of the java files, used to read and write them.
+     * <p>
+     * UTF-8 is used if the project sets no encoding.
+     */
+    @Parameter(defaultValue = "${project.build.sourceEncoding}")
+    private String sourceEncoding;
+
+    /**
+     * Patch the product files instead of printing them.
+     * <p>
+     * Only the generated members and imports are inserted, the rest of the file
+     * keeps its layout. Files that can not be patched are printed.
+     */
+    @Parameter(property = "numerobis.preserveLayout", defaultValue = "false")
+    private boolean preserveLayout;
+
+    /**
+     * Maximum number of files processed in parallel.
+     * <p>
+     * Values less than one select the number of available processors.
+     */
+    @Parameter(property = "numerobis.parallelism", defaultValue = "0")
+    private int parallelism;
+
+    /**
+     * Whether java files that did not change since the last run are skipped.
+     */
+    @Parameter(property = "numerobis.incremental", defaultValue = "true")
+    private boolean incremental;
+
+    /**
+     * File with the state of the last run, used for incremental generation.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/numerobis/state.bin")
+    private File stateFile;
+
+    /**
+     * Number of slowest files listed in the timing summary.
+     */
+    @Parameter(property = "numerobis.slowestFiles", defaultValue = "5")
+    private int slowestFiles;
+
+    /**
+     * Processing time in milliseconds above which a warning is logged for a file.
+     * <p>
+     * Values less than one disable the warning.
+     */
+    @Parameter(property = "numerobis.slowFileThreshold", defaultValue = "1000")
+    private long slowFileThreshold;
+
+    /**
+     * File for the JSON report of the run.
+     */
+    @Parameter(property = "numerobis.reportFile", defaultValue = "${project.build.directory}/numerobis/report.json")
+    private File reportFile;
+
+    /**
+     * Version of the generator, the state of an older version is discarded.
+     */
+    @Parameter(defaultValue = "${plugin.version}", readonly = true)
+    private String pluginVersion;
+
+    private Processor processor;
+    private BuildState state;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
+        try (URLClassLoader loader = compileClassLoader()) {
+            generate(loader);
+        } catch (IOException e) {
+            getLog().warn("could not close the class loader", e);
+        }
+    }
+
+    /**
+     * Processes all java files that changed since the last run.
+     *
+     * @param loader
+     *            class loader for the compile class path of the project
+     * @throws MojoExecutionException
+     *             if the processing of at least one file failed
+     * @throws MojoFailureException
+     *             if the configuration is invalid
+     */
+    void generate(ClassLoader loader) throws MojoExecutionException, MojoFailureException {
         logConfiguration();
-        compileSourceRoots.forEach(this::walk);
+        MojoSettings settings = processorSettings();
+        processor = new Processor(settings);
+        String environment = BuildState.environment(pluginVersion(), compileClasspathElements);
+        state = incremental //
+                ? BuildState.load(stateFile.toPath(), settings, environment)
+                : BuildState.empty(settings, environment);
+
+        long start = System.nanoTime();
+        List<File> files = sourceFiles();
+        files = withoutRemoved(files, removeStaleFiles(files));
+        state.compareSources(files);
+        processor.metrics().recordWalk(System.nanoTime() - start);
+        processor.withTypeResolver(typeResolver(loader, files));
+        List<File> changed = files.stream().filter(f -> !state.isUpToDate(f)).collect(toList());
+        getLog().info((files.size() - changed.size()) + " of " + files.size() + " files are up to date");
+        try {
+            process(changed);
+        } finally {
+            processor.metrics().log(getLog(), slowestFiles, slowFileThreshold);
+            writeReport(files.size(), files.size() - changed.size());
+        }
+    }
+
+    /**
+     * Processes the java files and stores the resulting state.
+     *
+     * @param files
+     *            java files to process
+     * @throws MojoExecutionException
+     *             if the processing of at least one file failed
+     */
+    void process(List<File> files) throws MojoExecutionException {
+        try {
+            new Dispatcher(this::processFile, parallelism(), getLog()).process(files);
+        } finally {
+            saveState(state);
+            getLog().info(processor.writtenFiles() + " files written, " //
+                    + processor.unchangedFiles() + " files unchanged");
+        }
+    }
+
+    /**
+     * Processes a single java file and records the result in the state.
+     *
+     * @param file
+     *            java file to process
+     * @return the paths of all generated files
+     */
+    List<Path> processFile(File file) {
+        Set<Path> dependencies = new HashSet<>();
+        List<Path> generated = processor.process(file, dependencies);
+        state.record(file, generated, dependencies);
+        return generated;
+    }
+
+    /**
+     * Creates a type resolver for the types declared in the java files.
+     *
+     * @param loader
+     *            class loader for the compile class path of the project
+     * @param files
+     *            all existing java files
+     * @return the resolver
+     */
+    TypeResolver typeResolver(ClassLoader loader, List<File> files) {
+        return new TypeResolver(loader, new DeclaredTypes(compileSourceRoots, files, sourceCharset()));
+    }
+
+    /**
+     * Removes the files generated for java files that no longer exist.
+     *
+     * @param files
+     *            all existing java files
+     * @return the removed files
+     */
+    List<Path> removeStaleFiles(List<File> files) {
+        List<Path> removed = new ArrayList<>();
+        for (Path path : state.removeDeleted(files)) {
+            if (deleteStaleFile(path)) {
+                removed.add(path.toAbsolutePath().normalize());
+            }
+        }
+        return removed;
+    }
+
+    private boolean deleteStaleFile(Path path) {
+        try {
+            if (Files.deleteIfExists(path)) {
+                getLog().info("removed stale file " + path);
+                return true;
+            }
+        } catch (IOException e) {
+            getLog().warn("could not remove stale file " + path, e);
+        }
+        return false;
+    }
+
+    /**
+     * Drops removed stale files from the files found by the walk.
+     * <p>
+     * A separate builder in a source directory is found by the walk before it
+     * is removed with its product.
+     */
+    private static List<File> withoutRemoved(List<File> files, List<Path> removed) {
+        if (removed.isEmpty()) {
+            return files;
+        }
+        return files.stream() //
+                .filter(f -> !removed.contains(f.toPath().toAbsolutePath().normalize())) //
+                .collect(toList());
+    }
+
+    private void saveState(BuildState state) {
+        try {
+            state.save(stateFile.toPath());
+        } catch (IOException e) {
+            getLog().warn("could not save state file " + stateFile, e);
+        }
+    }
+
+    private void writeReport(int scanned, int upToDate) {
+        BuildReport report = report() //
+                .total("filesScanned", scanned) //
+                .total("filesUpToDate", upToDate) //
+                .products(processor.metrics());
+        long parsed = processor.metrics().entries().stream().filter(Metrics.Entry::parsed).count();
+        report.total("filesSkipped", scanned - parsed) //
+                .total("filesWritten", processor.writtenFiles()) //
+                .total("filesUnchanged", processor.unchangedFiles());
+        try {
+            report.write(reportFile.toPath());
+        } catch (IOException e) {
+            getLog().warn("could not write report file " + reportFile, e);
+        }
+    }
+
+    /**
+     * Creates a report with the effective configuration.
+     *
+     * @return the report
+     */
+    BuildReport report() {
+        return new BuildReport() //
+                .configuration("sourceDirectories", compileSourceRoots) //
+                .configuration("includes", includes) //
+                .configuration("excludes", excludes) //
+                .configuration("targetDirectory", targetDirectory) //
+                .configuration("builderCreation", builderCreation) //
+                .configuration("builderLocation", builderLocation) //
+                .configuration("productsAreMutable", productsAreMutable) //
+                .configuration("listAdderVariants", listAdderVariants) //
+                .configuration("listMutatorVariants", listMutatorVariants) //
+                .configuration("naming", namingConfiguration()) //
+                .configuration("parallelism", parallelism()) //
+                .configuration("incremental", incremental) //
+                .configuration("sourceEncoding", sourceCharset().name()) //
+                .configuration("preserveLayout", preserveLayout);
+    }
+
+    private Map<String, String> namingConfiguration() {
+        Naming effective = ofNullable(naming).orElse(Naming.DEFAULT);
+        Map<String, String> result = new LinkedHashMap<>();
+        result.put("factoryMethod", effective.factoryMethod());
+        result.put("buildMethod", effective.buildMethod());
+        result.put("mutatorPrefix", effective.mutatorPrefix());
+        result.put("adderPrefix", effective.adderPrefix());
+        result.put("builderClassPostfix", effective.builderClassPostfix());
+        result.put("productField", effective.productField());
+        return result;
+    }
+
+    /**
+     * Creates a class loader for the compile class path of the project.
+     * <p>
+     * The caller closes the class loader at the end of the run to release the
+     * jar files.
+     *
+     * @return the class loader
+     * @throws MojoExecutionException
+     *             if a class path element is not a valid path
+     */
+    URLClassLoader compileClassLoader() throws MojoExecutionException {
+        List<URL> urls = new ArrayList<>();
+        for (String element : stream(compileClasspathElements).collect(toList())) {
+            try {
+                urls.add(new File(element).toURI().toURL());
+            } catch (MalformedURLException e) {
+                throw new MojoExecutionException("invalid class path element " + element, e);
+            }
+        }
+        return new URLClassLoader(urls.toArray(new URL[0]), getClass().getClassLoader());
+    }
+
+    private String pluginVersion() {
+        return ofNullable(pluginVersion).orElseGet(() -> getClass().getPackage().getImplementationVersion());
+    }
+
+    private int parallelism() {
+        return parallelism < 1 ? Runtime.getRuntime().availableProcessors() : parallelism;
     }
 
     private void logConfiguration() {
         getLog().info("target directory: " + targetDirectory);
         getLog().info("source directories: ");
         stream(compileSourceRoots).forEach(getLog()::info);
+        getLog().info("includes: " + (includes == null ? "" : includes));
+        getLog().info("excludes: " + (excludes == null ? "" : excludes));
         getLog().info("builder creation: " + builderCreation);
         getLog().info("builder location: " + builderLocation);
         getLog().info("products are " + (productsAreMutable ? "mutable" : "immutable") + " by default");
@@ -138,24 +459,35 @@ public class BuilderMojo extends AbstractMojo {
         stream(listMutatorVariants).map(GenerateListMutator.Variant::name).forEach(getLog()::info);
         getLog().info("naming settings");
         ofNullable(naming).map(Object::toString).ifPresent(getLog()::info);
+        getLog().info("parallelism: " + parallelism());
+        getLog().info("incremental: " + incremental);
+        getLog().info("source encoding: " + sourceCharset().name());
+        getLog().info("preserve layout: " + preserveLayout);
+    }
+
+    Processor processor() {
+        return processor;
+    }
+
+    BuildState state() {
+        return state;
+    }
+
+    List<String> compileSourceRoots() {
+        return compileSourceRoots;
     }
 
     /**
-     * Recursivly walks through the directory and processes all java files.
+     * Collects the java files in all source directories.
      *
-     * @param directory
-     *            directory to traverse
-     */
-    private void walk(String directory) {
-        try (Stream<Path> paths = Files.walk(Paths.get(directory))) {
-            paths.map(Path::toFile) //
-                    .filter(File::isFile) //
-                    .filter(f -> f.getName().endsWith(".java")) //
-                    .peek(f -> getLog().debug(f.toString())) //
-                    .forEach(new Processor(processorSettings())::process);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+     * @return list of java files
+     */
+    List<File> sourceFiles() {
+        return sourceFileFilter().collect(compileSourceRoots);
+    }
+
+    SourceFiles sourceFileFilter() {
+        return new SourceFiles(includes, excludes);
     }
 
     /**
@@ -172,7 +504,17 @@ public class BuilderMojo extends AbstractMojo {
                 .withListAdderVariants(stream(listAdderVariants).toArray(GenerateAdder.Variant[]::new)) //
                 .withListMutatorVariants(stream(listMutatorVariants).toArray(GenerateListMutator.Variant[]::new)) //
                 .withNamingSettings(naming) //
+                .withSourceEncoding(sourceCharset()) //
+                .withPreserveLayout(preserveLayout) //
                 .build();
     }
 
+    private Charset sourceCharset() {
+        return ofNullable(sourceEncoding) //
+                .map(String::trim) //
+                .filter(name -> !name.isEmpty()) //
+                .map(Charset::forName) //
+                .orElse(StandardCharsets.UTF_8);
+    }
+
 }
@@ -0,0 +1,224 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import static java.util.Optional.ofNullable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ast.CompilationUnit;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.Trees;
+
+import io.github.mletkin.numerobis.annotation.GenerateAdder;
+import io.github.mletkin.numerobis.annotation.GenerateListMutator;
+import io.github.mletkin.numerobis.generator.common.DeclaredTypes;
+import io.github.mletkin.numerobis.generator.common.TypeResolver;
+
+/**
+ * Annotation processor that generates separate builder classes during
+ * compilation.
+ * <ul>
+ * <li>handles top level classes annotated with {@code GenerateBuilder}
+ * <li>parses the source of the product class and uses the generator rules of
+ * the mojo
+ * <li>emits the builder class through the {@code Filer}
+ * </ul>
+ * The processor is not registered as a service, it must be activated
+ * explicitly. The builder class is always generated as a new class, existing
+ * builder classes must not be part of the sources. Embedded builders are
+ * generated by the mojo. Field types are resolved against the sources of the
+ * compilation like the mojo resolves them against the source directories. The configuration is passed as processor options, the
+ * names correspond to the mojo parameters.
+ */
+@SupportedAnnotationTypes("io.github.mletkin.numerobis.annotation.GenerateBuilder")
+@SupportedOptions({ "numerobis.builderCreation", "numerobis.productsAreMutable", "numerobis.listAdderVariants",
+        "numerobis.listMutatorVariants", "numerobis.factoryMethod", "numerobis.buildMethod",
+        "numerobis.mutatorPrefix", "numerobis.adderPrefix", "numerobis.builderClassPostfix",
+        "numerobis.productField" })
+public class BuilderProcessor extends AbstractProcessor {
+
+    private static final String PREFIX = "numerobis.";
+
+    private Processor processor;
+    private Naming naming;
+    private JavaParser parser = new JavaParser();
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        Map<String, String> options = processingEnv.getOptions();
+        naming = naming(options);
+        processor = new Processor(settings(options).withNamingSettings(naming).build());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (!annotations.isEmpty()) {
+            processor.withTypeResolver(typeResolver(roundEnv));
+        }
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.CLASS
+                        && element.getEnclosingElement().getKind() == ElementKind.PACKAGE) {
+                    generate((TypeElement) element);
+                } else {
+                    warning(element, "builders are only generated for top level classes");
+                }
+            }
+        }
+        return false;
+    }
+
+    private void generate(TypeElement product) {
+        try {
+            CompilationUnit productUnit = parse(product);
+            String productName = product.getSimpleName().toString();
+            CompilationUnit builderUnit = processor.separateBuilder(productUnit, productName);
+            write(builderName(product), builderUnit, product);
+        } catch (IOException | RuntimeException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "builder generation failed: " + e.getMessage(), product);
+        }
+    }
+
+    /**
+     * Creates a resolver for the types declared in the sources of the round.
+     * <p>
+     * Sources that can not be read or parsed are not indexed. Other classes are
+     * loaded with the class loader of the processor, javac uses the class path
+     * if no processor path is given.
+     *
+     * @param roundEnv
+     *            the environment of the round
+     * @return the resolver
+     */
+    private TypeResolver typeResolver(RoundEnvironment roundEnv) {
+        Map<URI, CompilationUnit> units = new LinkedHashMap<>();
+        for (Element element : roundEnv.getRootElements()) {
+            TreePath path = Trees.instance(processingEnv).getPath(element);
+            if (path == null) {
+                continue;
+            }
+            JavaFileObject source = path.getCompilationUnit().getSourceFile();
+            if (!units.containsKey(source.toUri())) {
+                try {
+                    units.put(source.toUri(), parse(source));
+                } catch (IOException | RuntimeException e) {
+                    warning(element, "source not indexed: " + e.getMessage());
+                }
+            }
+        }
+        return new TypeResolver(getClass().getClassLoader(), DeclaredTypes.of(units.values()));
+    }
+
+    private CompilationUnit parse(TypeElement product) throws IOException {
+        return parse(Trees.instance(processingEnv).getPath(product).getCompilationUnit().getSourceFile());
+    }
+
+    private CompilationUnit parse(JavaFileObject file) throws IOException {
+        CharSequence source = file.getCharContent(true);
+        ParseResult<CompilationUnit> result = parser.parse(source.toString());
+        return result.getResult() //
+                .filter(u -> result.isSuccessful()) //
+                .orElseThrow(() -> new IllegalStateException(result.getProblems().toString()));
+    }
+
+    private String builderName(TypeElement product) {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(product);
+        String simpleName = product.getSimpleName() + naming.builderClassPostfix();
+        return pkg.isUnnamed() ? simpleName : pkg.getQualifiedName() + "." + simpleName;
+    }
+
+    private void write(String name, CompilationUnit unit, TypeElement product) throws IOException {
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(name, product);
+        try (Writer writer = file.openWriter()) {
+            writer.write(unit.toString());
+        }
+    }
+
+    private void warning(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+
+    private static MojoSettings.Builder settings(Map<String, String> options) {
+        return new MojoSettings.Builder() //
+                .withBuilderCreation(option(options, "builderCreation") //
+                        .map(BuilderMojo.Creation::valueOf) //
+                        .orElse(BuilderMojo.Creation.FACTORY)) //
+                .withBuilderLocation(BuilderMojo.Location.SEPARATE) //
+                .withProductsAreMutable(option(options, "productsAreMutable").map(Boolean::valueOf).orElse(false)) //
+                .withListAdderVariants(option(options, "listAdderVariants") //
+                        .map(v -> list(v, GenerateAdder.Variant::valueOf).toArray(GenerateAdder.Variant[]::new)) //
+                        .orElse(null)) //
+                .withListMutatorVariants(option(options, "listMutatorVariants") //
+                        .map(v -> list(v, GenerateListMutator.Variant::valueOf)
+                                .toArray(GenerateListMutator.Variant[]::new)) //
+                        .orElse(null));
+    }
+
+    private static Naming naming(Map<String, String> options) {
+        Naming.Builder naming = Naming.Builder.of();
+        set(options, "factoryMethod", naming::withFactoryMethod);
+        set(options, "buildMethod", naming::withBuildMethod);
+        set(options, "mutatorPrefix", naming::withMutatorPrefix);
+        set(options, "adderPrefix", naming::withAdderPrefix);
+        set(options, "builderClassPostfix", naming::withBuilderClassPostfix);
+        set(options, "productField", naming::withProductField);
+        return naming.build();
+    }
+
+    private static void set(Map<String, String> options, String name, Consumer<String> setter) {
+        option(options, name).ifPresent(setter);
+    }
+
+    private static Optional<String> option(Map<String, String> options, String name) {
+        return ofNullable(options.get(PREFIX + name)).map(String::trim).filter(v -> !v.isEmpty());
+    }
+
+    private static <T> Stream<T> list(String value, Function<String, T> mapper) {
+        return Stream.of(value.split(",")).map(String::trim).filter(s -> !s.isEmpty()).map(mapper);
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Distributes the processing of java files over a pool of worker threads.
+ * <ul>
+ * <li>files are processed in parallel
+ * <li>results are logged in the order the files were submitted
+ * <li>a failing file does not stop the processing of the other files
+ * </ul>
+ */
+class Dispatcher {
+
+    private Consumer<File> task;
+    private int parallelism;
+    private Log log;
+
+    /**
+     * Creates a dispatcher.
+     *
+     * @param task
+     *            processing of a single file, must be thread safe
+     * @param parallelism
+     *            maximum number of worker threads
+     * @param log
+     *            log for the processing results
+     */
+    Dispatcher(Consumer<File> task, int parallelism, Log log) {
+        this.task = task;
+        this.parallelism = Math.max(1, parallelism);
+        this.log = log;
+    }
+
+    /**
+     * Processes the files and logs the outcome for each file.
+     *
+     * @param files
+     *            java files to process
+     * @throws MojoExecutionException
+     *             if the processing of at least one file failed
+     */
+    void process(List<File> files) throws MojoExecutionException {
+        if (files.isEmpty()) {
+            return;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(parallelism, files.size()));
+        try {
+            List<Future<?>> results = new ArrayList<>(files.size());
+            for (File file : files) {
+                results.add(pool.submit(() -> task.accept(file)));
+            }
+            int failed = 0;
+            for (int n = 0; n < files.size(); n++) {
+                if (!report(files.get(n), results.get(n))) {
+                    failed++;
+                }
+            }
+            if (failed > 0) {
+                throw new MojoExecutionException(failed + " of " + files.size() + " files could not be processed");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits for the processing of a file to finish and logs the outcome.
+     *
+     * @param file
+     *            the processed file
+     * @param result
+     *            result of the processing task
+     * @return {@code true} if the file was processed successfully
+     * @throws MojoExecutionException
+     *             if the thread was interrupted while waiting
+     */
+    private boolean report(File file, Future<?> result) throws MojoExecutionException {
+        try {
+            result.get();
+            if (log.isDebugEnabled()) {
+                log.debug(file.toString());
+            }
+            return true;
+        } catch (ExecutionException e) {
+            log.error("processing failed: " + file, e.getCause());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("interrupted while processing " + file, e);
+        }
+    }
+}
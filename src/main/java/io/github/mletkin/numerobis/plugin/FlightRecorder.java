@@ -0,0 +1,121 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import java.nio.file.Path;
+import java.util.function.LongSupplier;
+
+/**
+ * Emits JDK Flight Recorder events for the generator activity.
+ * <ul>
+ * <li>the event classes are only loaded if the runtime provides JFR
+ * <li>events are only created if the event type is enabled in a recording
+ * <li>without JFR or without recording a shared no-op span is returned
+ * </ul>
+ */
+abstract class FlightRecorder {
+
+    /**
+     * Types of the generator events.
+     */
+    enum Type {
+        FILE_SCANNED, FILE_PARSED, BUILDER_GENERATED, ACCESSORS_GENERATED, UNIT_SORTED, UNIT_WRITTEN
+    }
+
+    /**
+     * An event in progress.
+     * <p>
+     * The values are only evaluated if the event is recorded.
+     */
+    interface Span {
+
+        Span file(Path file);
+
+        Span productType(String productType);
+
+        Span bytes(LongSupplier bytes);
+
+        /**
+         * Ends and commits the event.
+         */
+        void end();
+    }
+
+    private static final Span NO_SPAN = new Span() {
+
+        @Override
+        public Span file(Path file) {
+            return this;
+        }
+
+        @Override
+        public Span productType(String productType) {
+            return this;
+        }
+
+        @Override
+        public Span bytes(LongSupplier bytes) {
+            return this;
+        }
+
+        @Override
+        public void end() {
+            // nothing recorded
+        }
+    };
+
+    private static final FlightRecorder INSTANCE = create();
+
+    /**
+     * Starts an event of the given type.
+     *
+     * @param type
+     *            the event type
+     * @return the event, a no-op span if the event is not recorded
+     */
+    static Span start(Type type) {
+        return INSTANCE.begin(type);
+    }
+
+    /**
+     * Creates and begins an event if the type is enabled.
+     *
+     * @param type
+     *            the event type
+     * @return the event, a no-op span if the type is not enabled
+     */
+    abstract Span begin(Type type);
+
+    static Span noSpan() {
+        return NO_SPAN;
+    }
+
+    private static FlightRecorder create() {
+        try {
+            Class.forName("jdk.jfr.Event", false, FlightRecorder.class.getClassLoader());
+            return (FlightRecorder) Class.forName(FlightRecorder.class.getName() + "Events") //
+                    .getDeclaredConstructor() //
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new FlightRecorder() {
+                @Override
+                Span begin(Type type) {
+                    return NO_SPAN;
+                }
+            };
+        }
+    }
+}
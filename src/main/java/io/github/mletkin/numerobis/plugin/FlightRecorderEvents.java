@@ -0,0 +1,148 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import java.nio.file.Path;
+import java.util.function.LongSupplier;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR implementation of the flight recorder.
+ * <p>
+ * Loaded reflectively by {@code FlightRecorder} if the runtime provides JFR.
+ */
+class FlightRecorderEvents extends FlightRecorder {
+
+    @Override
+    Span begin(Type type) {
+        GeneratorEvent event = create(type);
+        if (!event.isEnabled()) {
+            return noSpan();
+        }
+        event.begin();
+        return new EventSpan(event);
+    }
+
+    private static GeneratorEvent create(Type type) {
+        switch (type) {
+        case FILE_SCANNED:
+            return new FileScanned();
+        case FILE_PARSED:
+            return new FileParsed();
+        case BUILDER_GENERATED:
+            return new BuilderGenerated();
+        case ACCESSORS_GENERATED:
+            return new AccessorsGenerated();
+        case UNIT_SORTED:
+            return new UnitSorted();
+        default:
+            return new UnitWritten();
+        }
+    }
+
+    /**
+     * Span for an enabled event, the event methods are final.
+     */
+    private static class EventSpan implements Span {
+        private final GeneratorEvent event;
+
+        EventSpan(GeneratorEvent event) {
+            this.event = event;
+        }
+
+        @Override
+        public Span file(Path file) {
+            event.file = file == null ? null : file.toString();
+            return this;
+        }
+
+        @Override
+        public Span productType(String productType) {
+            event.productType = productType;
+            return this;
+        }
+
+        @Override
+        public Span bytes(LongSupplier bytes) {
+            event.bytes = bytes.getAsLong();
+            return this;
+        }
+
+        @Override
+        public void end() {
+            event.end();
+            if (event.shouldCommit()) {
+                event.commit();
+            }
+        }
+    }
+
+    @Category({ "Numerobis", "Generator" })
+    abstract static class GeneratorEvent extends Event {
+
+        @Label("File")
+        String file;
+
+        @Label("Product Type")
+        String productType;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("io.github.mletkin.numerobis.FileScanned")
+    @Label("File Scanned")
+    @Description("Java file scanned for generator annotations")
+    static class FileScanned extends GeneratorEvent {
+    }
+
+    @Name("io.github.mletkin.numerobis.FileParsed")
+    @Label("File Parsed")
+    @Description("Java file parsed into a compilation unit")
+    static class FileParsed extends GeneratorEvent {
+    }
+
+    @Name("io.github.mletkin.numerobis.BuilderGenerated")
+    @Label("Builder Generated")
+    @Description("Builder class generated for a product class")
+    static class BuilderGenerated extends GeneratorEvent {
+    }
+
+    @Name("io.github.mletkin.numerobis.AccessorsGenerated")
+    @Label("Accessors Generated")
+    @Description("Accessor methods generated for a product class")
+    static class AccessorsGenerated extends GeneratorEvent {
+    }
+
+    @Name("io.github.mletkin.numerobis.UnitSorted")
+    @Label("Unit Sorted")
+    @Description("Members of a compilation unit sorted")
+    static class UnitSorted extends GeneratorEvent {
+    }
+
+    @Name("io.github.mletkin.numerobis.UnitWritten")
+    @Label("Unit Written")
+    @Description("Compilation unit stored, bytes is zero for unchanged files")
+    static class UnitWritten extends GeneratorEvent {
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import static java.util.stream.Collectors.toList;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.CallableDeclaration;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+
+import io.github.mletkin.numerobis.plugin.Metrics.Member;
+
+/**
+ * Detects the members added to compilation units by the generator.
+ * <p>
+ * The constructors and methods present at creation are remembered, all others
+ * found later are considered generated. Generated builder members are
+ * classified by the naming settings.
+ */
+class GeneratedMembers {
+
+    private final CompilationUnit[] units;
+    private final Set<CallableDeclaration<?>> existing = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Takes a snapshot of the members of the units.
+     *
+     * @param units
+     *            the compilation units to watch, {@code null} values are
+     *            ignored
+     */
+    GeneratedMembers(CompilationUnit... units) {
+        this.units = units;
+        callables().forEach(existing::add);
+    }
+
+    /**
+     * Returns the members added since the snapshot was taken.
+     *
+     * @return list of constructors and methods
+     */
+    List<CallableDeclaration<?>> added() {
+        return callables().filter(c -> !existing.contains(c)).collect(toList());
+    }
+
+    /**
+     * Classifies a generated builder member.
+     *
+     * @param member
+     *            the generated member
+     * @param naming
+     *            naming settings used for generation
+     * @return the kind of the member, empty for the build method
+     */
+    static Optional<Member> builderMember(CallableDeclaration<?> member, Naming naming) {
+        if (member instanceof ConstructorDeclaration) {
+            return Optional.of(Member.CONSTRUCTOR);
+        }
+        String name = member.getNameAsString();
+        if (member.isStatic() && name.equals(naming.factoryMethod())) {
+            return Optional.of(Member.FACTORY_METHOD);
+        }
+        if (name.equals(naming.buildMethod())) {
+            return Optional.empty();
+        }
+        boolean adder = name.startsWith(naming.adderPrefix()) //
+                && (!name.startsWith(naming.mutatorPrefix())
+                        || naming.adderPrefix().length() > naming.mutatorPrefix().length());
+        return Optional.of(adder ? Member.ADDER : Member.MUTATOR);
+    }
+
+    private Stream<CallableDeclaration<?>> callables() {
+        return Stream.of(units) //
+                .filter(Objects::nonNull) //
+                .flatMap(u -> Stream.<CallableDeclaration<?>> concat( //
+                        u.findAll(ConstructorDeclaration.class).stream(), //
+                        u.findAll(MethodDeclaration.class).stream()));
+    }
+}
@@ -0,0 +1,304 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+
+import io.github.mletkin.numerobis.annotation.GenerateAdder;
+import io.github.mletkin.numerobis.annotation.GenerateListMutator;
+import io.github.mletkin.numerobis.generator.common.DeclaredTypes;
+import io.github.mletkin.numerobis.generator.common.TypeResolver;
+
+/**
+ * Command line entry point for the generator.
+ * <p>
+ * Processes java files without maven. The options correspond to the mojo
+ * parameters. Java files are taken from the source directories, the argument
+ * list and -- optionally -- from standard input, one file per line.
+ */
+public final class Main {
+
+    static final int OK = 0;
+    static final int FAILURE = 1;
+    static final int USAGE = 2;
+
+    private static final String HELP = "usage: java -jar numerobis-cli.jar [options] [files]\n" //
+            + "  --source <dir>             source directory, may be repeated\n" //
+            + "  --include <glob>           pattern of files to process, may be repeated\n" //
+            + "  --exclude <glob>           pattern of files and directories to skip, may be repeated\n" //
+            + "  --target <dir>             directory for separate builder classes\n" //
+            + "  --creation <mode>          CONSTRUCTOR or FACTORY (default)\n" //
+            + "  --location <mode>          EMBEDDED (default) or SEPARATE\n" //
+            + "  --mutable                  products are mutable by default\n" //
+            + "  --encoding <charset>       encoding of the java files, UTF-8 by default\n" //
+            + "  --preserve-layout          insert generated code, keep the layout of product files\n" //
+            + "  --adder-variants <list>    comma separated list of adder variants\n" //
+            + "  --mutator-variants <list>  comma separated list of list mutator variants\n" //
+            + "  --factory-method <name>    name of the factory methods\n" //
+            + "  --build-method <name>      name of the build method\n" //
+            + "  --mutator-prefix <prefix>  prefix of mutator methods\n" //
+            + "  --adder-prefix <prefix>    prefix of adder methods\n" //
+            + "  --builder-postfix <name>   builder class postfix\n" //
+            + "  --product-field <name>     name of the product field\n" //
+            + "  --parallelism <n>          number of files processed in parallel\n" //
+            + "  --stdin                    read additional files from standard input\n" //
+            + "  --verbose                  list each processed file\n" //
+            + "  --help                     print this help\n";
+
+    private List<String> sources = new ArrayList<>();
+    private List<String> includes = new ArrayList<>();
+    private List<String> excludes = new ArrayList<>();
+    private List<File> files = new ArrayList<>();
+    private MojoSettings.Builder settings = new MojoSettings.Builder() //
+            .withBuilderCreation(BuilderMojo.Creation.FACTORY) //
+            .withBuilderLocation(BuilderMojo.Location.EMBEDDED) //
+            .withSourceEncoding(StandardCharsets.UTF_8);
+    private Naming.Builder naming = Naming.Builder.of();
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private boolean readStdin;
+    private boolean help;
+
+    private Main() {
+        // instantiation through run only
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.in, log(args)));
+    }
+
+    /**
+     * Creates the log for the console.
+     * <p>
+     * Debug messages are only printed with the option {@code --verbose}.
+     *
+     * @param args
+     *            command line arguments
+     * @return the log
+     */
+    static Log log(String[] args) {
+        boolean verbose = Arrays.asList(args).contains("--verbose");
+        return new SystemStreamLog() {
+            @Override
+            public boolean isDebugEnabled() {
+                return verbose;
+            }
+
+            @Override
+            public void debug(CharSequence content) {
+                if (verbose) {
+                    super.debug(content);
+                }
+            }
+
+            @Override
+            public void debug(CharSequence content, Throwable error) {
+                if (verbose) {
+                    super.debug(content, error);
+                }
+            }
+
+            @Override
+            public void debug(Throwable error) {
+                if (verbose) {
+                    super.debug(error);
+                }
+            }
+        };
+    }
+
+    /**
+     * Processes the java files as specified by the arguments.
+     *
+     * @param args
+     *            command line arguments
+     * @param in
+     *            stream to read the file list from
+     * @param log
+     *            log for messages
+     * @return the exit code
+     */
+    static int run(String[] args, InputStream in, Log log) {
+        Main main = new Main();
+        try {
+            main.parse(args);
+            if (main.help) {
+                log.info(HELP);
+                return OK;
+            }
+            if (main.readStdin) {
+                main.read(in);
+            }
+        } catch (IllegalArgumentException e) {
+            log.error(e.getMessage());
+            log.info(HELP);
+            return USAGE;
+        } catch (IOException e) {
+            log.error(e);
+            return FAILURE;
+        }
+        return main.process(log);
+    }
+
+    private int process(Log log) {
+        List<File> all = javaFiles();
+        MojoSettings effective = settings.withNamingSettings(naming.build()).build();
+        DeclaredTypes declaredTypes = new DeclaredTypes(sources, all, effective.sourceEncoding());
+        Processor processor = new Processor(effective) //
+                .withTypeResolver(new TypeResolver(Main.class.getClassLoader(), declaredTypes));
+        try {
+            new Dispatcher(processor::process, parallelism, log).process(all);
+            return OK;
+        } catch (MojoExecutionException e) {
+            log.error(e.getMessage());
+            return FAILURE;
+        } finally {
+            log.info(processor.writtenFiles() + " files written, " + processor.unchangedFiles() + " files unchanged");
+        }
+    }
+
+    /**
+     * Collects the files of the source directories and the single files.
+     * <p>
+     * A file given twice is processed once, concurrent processing of the same
+     * file would write the same files in parallel.
+     *
+     * @return the distinct java files
+     */
+    private List<File> javaFiles() {
+        Set<File> result = new LinkedHashSet<>();
+        Stream.concat(new SourceFiles(includes, excludes).collect(sources).stream(), files.stream()) //
+                .map(f -> f.toPath().toAbsolutePath().normalize().toFile()) //
+                .forEach(result::add);
+        return new ArrayList<>(result);
+    }
+
+    private void parse(String[] args) {
+        for (Iterator<String> it = Stream.of(args).iterator(); it.hasNext();) {
+            String arg = it.next();
+            switch (arg) {
+            case "--source":
+                sources.add(value(arg, it));
+                break;
+            case "--include":
+                includes.add(value(arg, it));
+                break;
+            case "--exclude":
+                excludes.add(value(arg, it));
+                break;
+            case "--target":
+                settings.withTargetDirectory(value(arg, it));
+                break;
+            case "--creation":
+                settings.withBuilderCreation(BuilderMojo.Creation.valueOf(value(arg, it)));
+                break;
+            case "--location":
+                settings.withBuilderLocation(BuilderMojo.Location.valueOf(value(arg, it)));
+                break;
+            case "--mutable":
+                settings.withProductsAreMutable(true);
+                break;
+            case "--preserve-layout":
+                settings.withPreserveLayout(true);
+                break;
+            case "--encoding":
+                settings.withSourceEncoding(Charset.forName(value(arg, it)));
+                break;
+            case "--adder-variants":
+                settings.withListAdderVariants(list(value(arg, it), GenerateAdder.Variant::valueOf)
+                        .toArray(GenerateAdder.Variant[]::new));
+                break;
+            case "--mutator-variants":
+                settings.withListMutatorVariants(list(value(arg, it), GenerateListMutator.Variant::valueOf)
+                        .toArray(GenerateListMutator.Variant[]::new));
+                break;
+            case "--factory-method":
+                naming.withFactoryMethod(value(arg, it));
+                break;
+            case "--build-method":
+                naming.withBuildMethod(value(arg, it));
+                break;
+            case "--mutator-prefix":
+                naming.withMutatorPrefix(value(arg, it));
+                break;
+            case "--adder-prefix":
+                naming.withAdderPrefix(value(arg, it));
+                break;
+            case "--builder-postfix":
+                naming.withBuilderClassPostfix(value(arg, it));
+                break;
+            case "--product-field":
+                naming.withProductField(value(arg, it));
+                break;
+            case "--parallelism":
+                parallelism = Integer.parseInt(value(arg, it));
+                break;
+            case "--stdin":
+                readStdin = true;
+                break;
+            case "--verbose":
+                // evaluated when the log is created
+                break;
+            case "--help":
+                help = true;
+                break;
+            default:
+                if (arg.startsWith("--")) {
+                    throw new IllegalArgumentException("unknown option " + arg);
+                }
+                files.add(new File(arg));
+            }
+        }
+    }
+
+    private static String value(String option, Iterator<String> it) {
+        if (!it.hasNext()) {
+            throw new IllegalArgumentException("missing value for " + option);
+        }
+        return it.next();
+    }
+
+    private static <T> Stream<T> list(String value, Function<String, T> mapper) {
+        return Stream.of(value.split(",")).map(String::trim).filter(s -> !s.isEmpty()).map(mapper);
+    }
+
+    private void read(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.trim().isEmpty()) {
+                files.add(new File(line.trim()));
+            }
+        }
+    }
+}
@@ -0,0 +1,409 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.apache.maven.plugin.logging.Log;
+
+import io.github.mletkin.numerobis.common.Executor;
+import io.github.mletkin.numerobis.common.ThreadAllocation;
+
+/**
+ * Collects the time spent in the processing phases and the generation results.
+ * <ul>
+ * <li>the directory walk is measured once per run
+ * <li>all other phases are measured per java file
+ * <li>the generated members and written bytes are counted per java file
+ * <li>allocated bytes and AST nodes are counted per java file
+ * <li>the peak number of compilation units held at the same time is tracked
+ * <li>the heap usage is sampled per java file, the maximum is kept as peak
+ * <li>entries may be recorded by concurrent threads
+ * </ul>
+ */
+class Metrics {
+
+    /**
+     * Phases of the processing of a java file.
+     */
+    enum Phase {
+        PARSE("parse"), GENERATE("generate"), SORT("sort"), PRINT("print"), WRITE("write");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        String label() {
+            return label;
+        }
+    }
+
+    /**
+     * Kinds of generated members.
+     */
+    enum Member {
+        CONSTRUCTOR("constructors"), FACTORY_METHOD("factoryMethods"), MUTATOR("mutators"), ADDER("adders"),
+        ACCESSOR("accessors");
+
+        private final String label;
+
+        Member(String label) {
+            this.label = label;
+        }
+
+        String label() {
+            return label;
+        }
+    }
+
+    private AtomicLong walkNanos = new AtomicLong();
+    private Queue<Entry> entries = new ConcurrentLinkedQueue<>();
+    private AtomicInteger liveUnits = new AtomicInteger();
+    private AtomicInteger peakUnits = new AtomicInteger();
+    private AtomicLong peakHeap = new AtomicLong();
+
+    /**
+     * Records the time spent for walking the source directories.
+     *
+     * @param nanos
+     *            elapsed time in nanoseconds
+     */
+    void recordWalk(long nanos) {
+        walkNanos.addAndGet(nanos);
+    }
+
+    long walkNanos() {
+        return walkNanos.get();
+    }
+
+    /**
+     * Registers compilation units that are held by a processing thread.
+     *
+     * @param count
+     *            number of units, may be negative for released units
+     */
+    void unitsHeld(int count) {
+        int live = liveUnits.addAndGet(count);
+        peakUnits.accumulateAndGet(live, Math::max);
+    }
+
+    /**
+     * Returns the maximum number of compilation units held at the same time.
+     *
+     * @return the peak number of units
+     */
+    int peakUnits() {
+        return peakUnits.get();
+    }
+
+    /**
+     * Samples the current heap usage of the JVM and keeps the maximum.
+     */
+    void sampleHeap() {
+        peakHeap.accumulateAndGet(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(), Math::max);
+    }
+
+    /**
+     * Creates and registers the entry for a java file.
+     *
+     * @param file
+     *            the java file to process
+     * @return the entry for the measurement of the phases
+     */
+    Entry start(File file) {
+        Entry entry = new Entry(file);
+        entries.add(entry);
+        return entry;
+    }
+
+    /**
+     * Returns the entries of all processed files.
+     *
+     * @return list of the entries
+     */
+    List<Entry> entries() {
+        return new ArrayList<>(entries);
+    }
+
+    /**
+     * Logs the summary of the collected measurements.
+     *
+     * @param log
+     *            log for the summary
+     * @param top
+     *            number of slowest files to list
+     * @param thresholdMillis
+     *            files taking longer are reported as warning, zero or less
+     *            disables the check
+     */
+    void log(Log log, int top, long thresholdMillis) {
+        List<Entry> all = entries();
+        log.info(all.size() + " files processed, " //
+                + all.stream().filter(Entry::generated).count() + " with generated code");
+        log.info(String.format("%-10s %10s %10s %10s %10s", "phase", "total", "p50", "p95", "max"));
+        log.info(String.format("%-10s %10s", "walk", millis(walkNanos.get())));
+        for (Phase phase : Phase.values()) {
+            long[] sorted = all.stream().mapToLong(e -> e.nanos(phase)).sorted().toArray();
+            log.info(String.format("%-10s %10s %10s %10s %10s", phase.label(), //
+                    millis(Arrays.stream(sorted).sum()), //
+                    millis(percentile(sorted, 50)), //
+                    millis(percentile(sorted, 95)), //
+                    millis(percentile(sorted, 100))));
+        }
+        List<Entry> slowest = all.stream() //
+                .sorted(Comparator.comparingLong(Entry::total).reversed()) //
+                .limit(Math.max(0, top)) //
+                .collect(toList());
+        if (!slowest.isEmpty()) {
+            log.info("slowest files:");
+            slowest.forEach(e -> log.info("  " + e));
+        }
+        List<Entry> heaviest = all.stream() //
+                .filter(e -> e.allocatedBytes() > 0) //
+                .sorted(Comparator.comparingLong(Entry::allocatedBytes).reversed()) //
+                .limit(Math.max(0, top)) //
+                .collect(toList());
+        if (!heaviest.isEmpty()) {
+            log.info("heaviest files:");
+            heaviest.forEach(e -> log.info("  " + e.file() + " " + megabytes(e.allocatedBytes()) + " allocated, " //
+                    + e.astNodes() + " AST nodes"));
+        }
+        log.info("peak live compilation units: " + peakUnits.get());
+        log.info("peak heap usage: " + megabytes(peakHeapBytes()));
+        if (thresholdMillis > 0) {
+            long threshold = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+            all.stream() //
+                    .filter(e -> e.total() > threshold) //
+                    .forEach(e -> log.warn("processing exceeded " + thresholdMillis + " ms: " + e));
+        }
+    }
+
+    /**
+     * Computes a percentile with the nearest rank method.
+     *
+     * @param sorted
+     *            sorted values
+     * @param percent
+     *            the percentile to compute
+     * @return the value, zero for an empty array
+     */
+    static long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Returns the peak heap usage of the JVM.
+     * <p>
+     * The value is the maximum of the samples taken after each java file and at
+     * the time of the call, it includes the memory used by maven itself.
+     *
+     * @return the peak heap usage in bytes
+     */
+    long peakHeapBytes() {
+        sampleHeap();
+        return peakHeap.get();
+    }
+
+    static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f ms", nanos / 1_000_000.0);
+    }
+
+    static String megabytes(long bytes) {
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    /**
+     * The measurements for a single java file.
+     */
+    static class Entry {
+        private final File file;
+        private final long[] nanos = new long[Phase.values().length];
+        private final int[] members = new int[Member.values().length];
+        private volatile boolean parsed;
+        private volatile boolean generated;
+        private volatile String productType;
+        private volatile BuilderMojo.Location location;
+        private volatile Path builderPath;
+        private long bytesWritten;
+        private long allocatedBytes = ThreadAllocation.UNAVAILABLE;
+        private long astNodes;
+
+        private Entry(File file) {
+            this.file = file;
+        }
+
+        /**
+         * Executes a phase and adds the elapsed time to the phase.
+         *
+         * @param phase
+         *            the measured phase
+         * @param executor
+         *            the phase to execute
+         */
+        void time(Phase phase, Executor executor) {
+            time(phase, () -> {
+                executor.execute();
+                return null;
+            });
+        }
+
+        /**
+         * Executes a phase and adds the elapsed time to the phase.
+         *
+         * @param <T>
+         *            type of the result
+         * @param phase
+         *            the measured phase
+         * @param supplier
+         *            the phase to execute
+         * @return the result of the phase
+         */
+        <T> T time(Phase phase, Supplier<T> supplier) {
+            long start = System.nanoTime();
+            try {
+                return supplier.get();
+            } finally {
+                add(phase, System.nanoTime() - start);
+            }
+        }
+
+        synchronized void add(Phase phase, long elapsed) {
+            nanos[phase.ordinal()] += elapsed;
+        }
+
+        void markParsed() {
+            parsed = true;
+        }
+
+        boolean parsed() {
+            return parsed;
+        }
+
+        /**
+         * Marks the file as product file with generated code.
+         *
+         * @param productType
+         *            name of the product class
+         * @param location
+         *            location of the builder, {@code null} if no builder is
+         *            generated
+         * @param builderPath
+         *            path of the separate builder class, {@code null} for
+         *            embedded builders
+         */
+        void markGenerated(String productType, BuilderMojo.Location location, Path builderPath) {
+            this.productType = productType;
+            this.location = location;
+            this.builderPath = builderPath;
+            generated = true;
+        }
+
+        boolean generated() {
+            return generated;
+        }
+
+        String productType() {
+            return productType;
+        }
+
+        BuilderMojo.Location location() {
+            return location;
+        }
+
+        Path builderPath() {
+            return builderPath;
+        }
+
+        synchronized void count(Member member) {
+            members[member.ordinal()]++;
+        }
+
+        synchronized int members(Member member) {
+            return members[member.ordinal()];
+        }
+
+        synchronized void addBytesWritten(long bytes) {
+            bytesWritten += bytes;
+        }
+
+        synchronized long bytesWritten() {
+            return bytesWritten;
+        }
+
+        synchronized void recordAllocatedBytes(long allocatedBytes) {
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        /**
+         * Returns the bytes allocated by the processing thread for the file.
+         *
+         * @return number of bytes, negative if not measured
+         */
+        synchronized long allocatedBytes() {
+            return allocatedBytes;
+        }
+
+        synchronized void addAstNodes(long count) {
+            astNodes += count;
+        }
+
+        synchronized long astNodes() {
+            return astNodes;
+        }
+
+        File file() {
+            return file;
+        }
+
+        synchronized long nanos(Phase phase) {
+            return nanos[phase.ordinal()];
+        }
+
+        synchronized long total() {
+            return Arrays.stream(nanos).sum();
+        }
+
+        @Override
+        public String toString() {
+            return file + " " + millis(total()) + " (" //
+                    + Stream.of(Phase.values()).map(p -> p.label() + " " + millis(nanos(p))).collect(joining(", ")) //
+                    + ")";
+        }
+    }
+}
@@ -15,6 +15,9 @@
  */
 package io.github.mletkin.numerobis.plugin;
 
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
 import io.github.mletkin.numerobis.annotation.GenerateAdder;
 import io.github.mletkin.numerobis.annotation.GenerateListMutator;
 
@@ -30,6 +33,8 @@ public class MojoSettings {
     private GenerateAdder.Variant[] listAdderVariants;
     private GenerateListMutator.Variant[] listMutatorVariants;
     private Naming naming;
+    private Charset sourceEncoding;
+    private boolean preserveLayout;
 
     private MojoSettings() {
         // builder instantiation only
@@ -63,6 +68,28 @@ public class MojoSettings {
         return naming;
 
     }
+
+    public Charset sourceEncoding() {
+        return sourceEncoding;
+    }
+
+    public boolean preserveLayout() {
+        return preserveLayout;
+    }
+
+    @Override
+    public String toString() {
+        return "targetDirectory: " + targetDirectory //
+                + ", builderCreation: " + builderCreation //
+                + ", builderLocation: " + builderLocation //
+                + ", productsAreMutable: " + productsAreMutable //
+                + ", listAdderVariants: " + Arrays.toString(listAdderVariants) //
+                + ", listMutatorVariants: " + Arrays.toString(listMutatorVariants) //
+                + ", naming: [" + naming + "]" //
+                + ", sourceEncoding: " + sourceEncoding //
+                + ", preserveLayout: " + preserveLayout;
+    }
+
     public static class Builder {
 
         private MojoSettings product;
@@ -106,6 +133,16 @@ public class MojoSettings {
             return this;
         }
 
+        public Builder withSourceEncoding(Charset sourceEncoding) {
+            product.sourceEncoding = sourceEncoding;
+            return this;
+        }
+
+        public Builder withPreserveLayout(boolean preserveLayout) {
+            product.preserveLayout = preserveLayout;
+            return this;
+        }
+
         public MojoSettings build() {
             return product;
         }
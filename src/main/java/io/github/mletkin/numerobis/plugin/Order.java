@@ -17,20 +17,43 @@ package io.github.mletkin.numerobis.plugin;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.Optional;
 
-import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.PackageDeclaration;
 
+import io.github.mletkin.numerobis.annotation.GenerateAccessors;
+import io.github.mletkin.numerobis.annotation.GenerateBuilder;
 import io.github.mletkin.numerobis.generator.Facade;
+import io.github.mletkin.numerobis.plugin.FlightRecorder.Type;
 
 /**
  * Class describing the processing of a single java file.
  */
 class Order {
 
+    /**
+     * One parser per thread.
+     * <p>
+     * {@code StaticJavaParser} shares a single configuration between all threads,
+     * parser instances are not thread safe.
+     */
+    private static final ThreadLocal<JavaParser> PARSER = //
+            ThreadLocal.withInitial(() -> new JavaParser(new ParserConfiguration()));
+
+    private static final AnnotationPrefilter PREFILTER = //
+            new AnnotationPrefilter(GenerateBuilder.class, GenerateAccessors.class);
+
     private boolean generateBuilder;
     private boolean generateAccessors;
 
@@ -40,18 +63,53 @@ class Order {
     private CompilationUnit productUnit;
     private Path productPath;
 
+    private SourcePatch sourcePatch;
+
+    private Charset charset;
+
     /**
      * Creates an order object for a given product class file.
+     * <p>
+     * The file is only parsed, if the prefilter finds a trace of the annotations.
      *
      * @param productClassFile
      *            descriptor of the file with the product class
+     * @param charset
+     *            encoding of the java files
      */
-    public Order(File productClassFile) {
-        productPath = productClassFile.toPath();
-        productUnit = parse(productClassFile);
+    public Order(File productClassFile, Charset charset) {
+        this(productClassFile, charset, false);
+    }
 
-        generateBuilder = Facade.isBuilderWanted(productUnit);
-        generateAccessors = Facade.areAccessorsWanted(productUnit);
+    /**
+     * Creates an order object for a given product class file.
+     * <p>
+     * The file is only parsed, if the prefilter finds a trace of the annotations.
+     * To preserve the layout, the source text of the product class is kept for
+     * patching.
+     *
+     * @param productClassFile
+     *            descriptor of the file with the product class
+     * @param charset
+     *            encoding of the java files
+     * @param preserveLayout
+     *            {@code true} to patch the product file instead of printing it
+     */
+    public Order(File productClassFile, Charset charset, boolean preserveLayout) {
+        this.charset = charset;
+        productPath = productClassFile.toPath();
+        if (isCandidate(productClassFile)) {
+            if (preserveLayout) {
+                String source = read(productClassFile);
+                productUnit = parse(productClassFile, source);
+                sourcePatch = new SourcePatch(productUnit, source);
+            } else {
+                productUnit = parse(productClassFile);
+            }
+
+            generateBuilder = Facade.isBuilderWanted(productUnit);
+            generateAccessors = Facade.areAccessorsWanted(productUnit);
+        }
     }
 
     /**
@@ -92,6 +150,15 @@ class Order {
         return productUnit.getPrimaryTypeName();
     }
 
+    /**
+     * Returns the patch for the product file.
+     *
+     * @return the patch or {@code null} if the layout is not preserved
+     */
+    SourcePatch sourcePatch() {
+        return sourcePatch;
+    }
+
     Path builderPath() {
         return builderPath;
     }
@@ -112,11 +179,66 @@ class Order {
         return productUnit.getPackageDeclaration().map(PackageDeclaration::getNameAsString).orElse(null);
     }
 
+    private boolean isCandidate(File file) {
+        FlightRecorder.Span span = FlightRecorder.start(Type.FILE_SCANNED);
+        try {
+            return PREFILTER.isCandidate(file.toPath());
+        } finally {
+            span.file(file.toPath()).bytes(file::length).end();
+        }
+    }
+
     private CompilationUnit parse(File file) {
+        FlightRecorder.Span span = FlightRecorder.start(Type.FILE_PARSED);
+        try {
+            ParseResult<CompilationUnit> result = parser().parse(file.toPath());
+            return result.getResult() //
+                    .filter(u -> result.isSuccessful()) //
+                    .orElseThrow(() -> new ParseProblemException(result.getProblems()));
+        } catch (NoSuchFileException e) {
+            throw notFound(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            span.file(file.toPath()).bytes(file::length).end();
+        }
+    }
+
+    private CompilationUnit parse(File file, String source) {
+        FlightRecorder.Span span = FlightRecorder.start(Type.FILE_PARSED);
         try {
-            return StaticJavaParser.parse(file);
-        } catch (FileNotFoundException e) {
-            throw new MojoFileNotFoundException(e);
+            ParseResult<CompilationUnit> result = parser().parse(source);
+            return result.getResult() //
+                    .filter(u -> result.isSuccessful()) //
+                    .map(u -> u.setStorage(file.toPath(), charset)) //
+                    .orElseThrow(() -> new ParseProblemException(result.getProblems()));
+        } finally {
+            span.file(file.toPath()).bytes(file::length).end();
         }
     }
+
+    /**
+     * Returns the parser of the current thread, set to the encoding of the order.
+     */
+    private JavaParser parser() {
+        JavaParser parser = PARSER.get();
+        parser.getParserConfiguration().setCharacterEncoding(charset);
+        return parser;
+    }
+
+    private String read(File file) {
+        try {
+            return new String(Files.readAllBytes(file.toPath()), charset);
+        } catch (NoSuchFileException e) {
+            throw notFound(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static MojoFileNotFoundException notFound(NoSuchFileException e) {
+        FileNotFoundException notFound = new FileNotFoundException(e.getMessage());
+        notFound.initCause(e);
+        return new MojoFileNotFoundException(notFound);
+    }
 }
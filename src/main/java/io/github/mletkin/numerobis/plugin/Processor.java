@@ -19,18 +19,28 @@ import static java.util.Optional.ofNullable;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import com.github.javaparser.ast.CompilationUnit;
 
 import io.github.mletkin.numerobis.common.Executor;
+import io.github.mletkin.numerobis.common.ThreadAllocation;
 import io.github.mletkin.numerobis.common.Util;
 import io.github.mletkin.numerobis.generator.Facade;
 import io.github.mletkin.numerobis.generator.GeneratorException;
 import io.github.mletkin.numerobis.generator.ListMutatorVariant;
 import io.github.mletkin.numerobis.generator.Sorter;
+import io.github.mletkin.numerobis.generator.common.TypeResolver;
+import io.github.mletkin.numerobis.plugin.FlightRecorder.Type;
+import io.github.mletkin.numerobis.plugin.Metrics.Phase;
 
 /**
  * Processes a single java files to generate a builder class.
@@ -39,14 +49,24 @@ import io.github.mletkin.numerobis.generator.Sorter;
  * <li>created with a setup for the generator
  * <li>{@code process} is called for each java file
  * <li>maps mojo settings to generator settings
+ * <li>may be used by concurrent threads
+ * <li>measures the time spent in the processing phases
  * </ul>
  */
 public class Processor {
     private String destinationPath;
     private boolean useFactoryMethods;
     private boolean embeddedBuilder;
+    private BuilderMojo.Location location;
     private Facade facade;
     private Naming naming;
+    private TypeResolver typeResolver = TypeResolver.defaultResolver();
+    private UnitWriter unitWriter;
+    private boolean preserveLayout;
+
+    private AtomicInteger writtenFiles = new AtomicInteger();
+    private AtomicInteger unchangedFiles = new AtomicInteger();
+    private Metrics metrics = new Metrics();
 
     /**
      * Creates a processor for the given configuration.
@@ -58,13 +78,33 @@ public class Processor {
         this.destinationPath = ofNullable(settings.targetDirectory()).map(String::trim).orElse("");
         this.useFactoryMethods = settings.builderCreation().flag();
         this.embeddedBuilder = settings.builderLocation().flag();
+        this.location = settings.builderLocation();
         this.naming = settings.naming();
         this.facade = new Facade(settings.productsAreMutable(), settings.naming());
+        this.unitWriter = new UnitWriter(ofNullable(settings.sourceEncoding()).orElse(StandardCharsets.UTF_8));
+        this.preserveLayout = settings.preserveLayout();
 
         ofNullable(settings.listAdderVariants()).map(this::toVariants).ifPresent(facade::withAdderVariants);
         ofNullable(settings.listMutatorVariants()).map(this::toVariants).ifPresent(facade::withMutatorVariants);
     }
 
+    /**
+     * Sets the resolver for the types referenced by the product classes.
+     * <p>
+     * All files processed by the processor share the resolved types. Parsed
+     * product units are added to the declared types of the resolver.
+     *
+     * @param typeResolver
+     *            resolver for the sources and the compile class path of the
+     *            project
+     * @return the processor instance
+     */
+    public Processor withTypeResolver(TypeResolver typeResolver) {
+        this.typeResolver = typeResolver;
+        facade.withTypeResolver(typeResolver);
+        return this;
+    }
+
     /**
      * Maps variant lists for generator use.
      * <p>
@@ -84,17 +124,85 @@ public class Processor {
      *
      * @param file
      *            location of the product class definition
+     * @return the paths of all generated files, written or unchanged
      */
-    public void process(File file) {
-        Order order = new Order(file);
-        if (order.generateBuilder()) {
-            order.setBuilderPath(builderPath(order));
+    public List<Path> process(File file) {
+        return process(file, new HashSet<>());
+    }
+
+    /**
+     * Parses the java file, generates and stores the class files if desired.
+     * <p>
+     * Collects the source files of the declared types the generation depends
+     * on, a change in one of them may change the generated code.
+     *
+     * @param file
+     *            location of the product class definition
+     * @param dependencies
+     *            collects the source files the generation depends on
+     * @return the paths of all generated files, written or unchanged
+     */
+    public List<Path> process(File file, Collection<Path> dependencies) {
+        Metrics.Entry entry = metrics.start(file);
+        long allocated = ThreadAllocation.current();
+        int units = 0;
+        try {
+            Order order = entry.time(Phase.PARSE, () -> new Order(file, unitWriter.charset(), preserveLayout));
+            if (order.productUnit() != null) {
+                typeResolver.declaredTypes().add(order.productPath(), order.productUnit());
+                entry.markParsed();
+                metrics.unitsHeld(1);
+                units++;
+            }
+            if (order.generateBuilder()) {
+                entry.time(Phase.PARSE, () -> order.setBuilderPath(builderPath(order)));
+                metrics.unitsHeld(1);
+                units++;
+            }
+            if (order.needsProcessing()) {
+                dependencies.addAll(typeResolver.sourceFiles(order.productUnit()));
+                entry.time(Phase.GENERATE, () -> generate(order, entry));
+                entry.time(Phase.SORT, () -> sort(order));
+                countNodes(order, entry);
+                return write(order, entry);
+            }
+            return Collections.emptyList();
+        } finally {
+            metrics.sampleHeap();
+            metrics.unitsHeld(-units);
+            if (allocated != ThreadAllocation.UNAVAILABLE) {
+                entry.recordAllocatedBytes(ThreadAllocation.current() - allocated);
+            }
+        }
+    }
+
+    private void countNodes(Order order, Metrics.Entry entry) {
+        ofNullable(order.productUnit()).ifPresent(u -> entry.addAstNodes(u.stream().count()));
+        if (!embeddedBuilder) {
+            ofNullable(order.builderUnit()).ifPresent(u -> entry.addAstNodes(u.stream().count()));
         }
-        if (order.needsProcessing()) {
-            generate(order);
-            sort(order);
-            write(order);
+    }
+
+    /**
+     * Generates a separate builder class for a product class.
+     * <p>
+     * Used to generate builders without file access. The builder class is
+     * generated in a new compilation unit, the product unit is not written.
+     *
+     * @param productUnit
+     *            compilation unit with the product class
+     * @param productTypeName
+     *            name of the product class
+     * @return compilation unit with the sorted builder class
+     */
+    public CompilationUnit separateBuilder(CompilationUnit productUnit, String productTypeName) {
+        CompilationUnit builderUnit = new CompilationUnit();
+        if (useFactoryMethods) {
+            facade.withFactoryMethods(productUnit, productTypeName, builderUnit);
+        } else {
+            facade.withConstructors(productUnit, productTypeName, builderUnit);
         }
+        return new Sorter(naming).sort(builderUnit);
     }
 
     private Path builderPath(Order order) {
@@ -109,15 +217,32 @@ public class Processor {
         return new File(path, fileName).toPath();
     }
 
-    private void generate(Order order) {
+    private void generate(Order order, Metrics.Entry entry) {
         String productTypeName = order.productTypeName().orElseThrow(GeneratorException::productClassNotFound);
+        entry.markGenerated(productTypeName, order.generateBuilder() ? location : null,
+                order.generateBuilder() && !embeddedBuilder ? order.builderPath() : null);
 
         if (order.generateBuilder()) {
-            generator(order).execute();
+            GeneratedMembers members = new GeneratedMembers(order.productUnit(), order.builderUnit());
+            record(Type.BUILDER_GENERATED, order, generator(order));
+            members.added().stream() //
+                    .map(m -> GeneratedMembers.builderMember(m, naming)) //
+                    .forEach(m -> m.ifPresent(entry::count));
         }
 
         if (order.generateAccessors()) {
-            facade.withAccessors(order.productUnit(), productTypeName);
+            GeneratedMembers members = new GeneratedMembers(order.productUnit());
+            record(Type.ACCESSORS_GENERATED, order, () -> facade.withAccessors(order.productUnit(), productTypeName));
+            members.added().forEach(m -> entry.count(Metrics.Member.ACCESSOR));
+        }
+    }
+
+    private void record(Type type, Order order, Executor executor) {
+        FlightRecorder.Span span = FlightRecorder.start(type);
+        try {
+            executor.execute();
+        } finally {
+            span.file(order.productPath()).productType(order.productTypeName().orElse(null)).end();
         }
     }
 
@@ -133,26 +258,146 @@ public class Processor {
                 : () -> facade.withConstructors(order.productUnit(), type, order.builderUnit());
     }
 
+    /**
+     * Sorts the members of the generated units.
+     * <p>
+     * A product unit that is patched is not sorted, the patch places the added
+     * members.
+     */
     private void sort(Order order) {
         Sorter sorter = new Sorter(naming);
-        ofNullable(order.builderUnit()).ifPresent(sorter::sort);
-        ofNullable(order.productUnit()).ifPresent(sorter::sort);
+        ofNullable(order.builderUnit()).ifPresent(u -> sort(sorter, u, order.builderPath()));
+        if (order.sourcePatch() == null) {
+            ofNullable(order.productUnit()).ifPresent(u -> sort(sorter, u, order.productPath()));
+        }
+    }
+
+    private static void sort(Sorter sorter, CompilationUnit unit, Path path) {
+        FlightRecorder.Span span = FlightRecorder.start(Type.UNIT_SORTED);
+        try {
+            sorter.sort(unit);
+        } finally {
+            span.file(path).end();
+        }
     }
 
-    private void write(Order order) {
+    private List<Path> write(Order order, Metrics.Entry entry) {
+        List<Path> written = new ArrayList<>();
         if (!embeddedBuilder) {
-            ofNullable(order.builderUnit()).ifPresent(u -> writeUnit(order.builderPath(), u));
+            ofNullable(order.builderUnit()).ifPresent(u -> written.add(writeUnit(order.builderPath(), u, entry)));
+        }
+        if (order.sourcePatch() != null) {
+            written.add(patchUnit(order, entry));
+        } else {
+            ofNullable(order.productUnit()).ifPresent(u -> written.add(writeUnit(order.productPath(), u, entry)));
         }
-        ofNullable(order.productUnit()).ifPresent(u -> writeUnit(order.productPath(), u));
+        return written;
     }
 
-    private void writeUnit(Path path, CompilationUnit unit) {
+    /**
+     * Writes the changes of the product unit into the product file.
+     * <p>
+     * The file is neither printed nor read if nothing was generated. If the
+     * changes can not be patched, the unit is sorted and printed.
+     *
+     * @param order
+     *            the processed order with a source patch
+     * @param entry
+     *            measurement entry of the processed file
+     * @return the path of the product file
+     */
+    private Path patchUnit(Order order, Metrics.Entry entry) {
+        Sorter sorter = new Sorter(naming);
+        SourcePatch patch = order.sourcePatch();
+        if (!patch.prepare(sorter)) {
+            sort(sorter, order.productUnit(), order.productPath());
+            return writeUnit(order.productPath(), order.productUnit(), entry);
+        }
+        if (patch.isChanged()) {
+            String content = entry.time(Phase.PRINT, patch::print);
+            entry.time(Phase.WRITE, () -> store(order.productPath(), content, entry));
+        } else {
+            unchangedFiles.incrementAndGet();
+        }
+        return order.productPath();
+    }
+
+    /**
+     * Writes the unit to the file, if the content differs from the file content.
+     * <p>
+     * Unchanged files are not touched to retain the modification time. The
+     * content is encoded with the encoding of the project sources.
+     *
+     * @param path
+     *            path of the file to write
+     * @param unit
+     *            compilation unit to store
+     * @param entry
+     *            measurement entry of the processed file
+     * @return the path of the file
+     */
+    private Path writeUnit(Path path, CompilationUnit unit, Metrics.Entry entry) {
+        String content = entry.time(Phase.PRINT, () -> unitWriter.print(unit));
+        entry.time(Phase.WRITE, () -> store(path, content, entry));
+        return path;
+    }
+
+    private void store(Path path, String content, Metrics.Entry entry) {
+        FlightRecorder.Span span = FlightRecorder.start(Type.UNIT_WRITTEN).file(path);
         try {
-            Util.createParentPath(path);
-            Files.write(path, unit.toString().getBytes());
+            if (unitWriter.hasContent(path, content)) {
+                unchangedFiles.incrementAndGet();
+            } else {
+                Util.createParentPath(path);
+                long bytes = unitWriter.write(path, content);
+                writtenFiles.incrementAndGet();
+                entry.addBytesWritten(bytes);
+                span.bytes(() -> bytes);
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            span.end();
         }
     }
 
+    /**
+     * Starts a new batch of files.
+     * <p>
+     * Discards the measurements and resets the file counters. Used by the watch
+     * goal, which processes an unlimited number of batches.
+     */
+    void startBatch() {
+        metrics = new Metrics();
+        writtenFiles.set(0);
+        unchangedFiles.set(0);
+    }
+
+    /**
+     * Returns the number of files written since the start of the batch.
+     *
+     * @return number of written files
+     */
+    public int writtenFiles() {
+        return writtenFiles.get();
+    }
+
+    /**
+     * Returns the number of files not written because the content was unchanged.
+     *
+     * @return number of unchanged files
+     */
+    public int unchangedFiles() {
+        return unchangedFiles.get();
+    }
+
+    /**
+     * Returns the measurements of all files processed since the start of the batch.
+     *
+     * @return the metrics collector
+     */
+    Metrics metrics() {
+        return metrics;
+    }
+
 }
@@ -0,0 +1,216 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import static io.github.mletkin.numerobis.common.Util.stream;
+import static java.util.stream.Collectors.toList;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Collects the java files in source directories.
+ * <p>
+ * Files are selected by glob patterns relative to the source directory.
+ * <ul>
+ * <li>only files with the extension {@code .java} are selected
+ * <li>a file must match an include pattern and no exclude pattern
+ * <li>the default include pattern is {@code **}{@code /*.java}
+ * <li>directories that match an exclude pattern are skipped completely
+ * <li>hidden directories are skipped
+ * </ul>
+ * A pattern starting with {@code **}{@code /} also matches in the source
+ * directory itself, a pattern ending with {@code /**} also matches the
+ * directory.
+ */
+class SourceFiles {
+
+    private static final List<String> DEFAULT_INCLUDES = Collections.singletonList("**/*.java");
+
+    private List<PathMatcher> includes;
+    private List<PathMatcher> excludes;
+
+    /**
+     * Creates a source file collector.
+     *
+     * @param includes
+     *            glob patterns of the files to include, may be {@code null}
+     * @param excludes
+     *            glob patterns of the files and directories to exclude, may be
+     *            {@code null}
+     */
+    SourceFiles(Collection<String> includes, Collection<String> excludes) {
+        this.includes = matchers(includes == null || includes.isEmpty() ? DEFAULT_INCLUDES : includes);
+        this.excludes = matchers(excludes);
+    }
+
+    /**
+     * Collects the java files in all source directories.
+     *
+     * @param directories
+     *            source directories
+     * @return list of java files
+     */
+    List<File> collect(Collection<String> directories) {
+        return stream(directories) //
+                .map(this::walk) //
+                .flatMap(List::stream) //
+                .collect(toList());
+    }
+
+    /**
+     * Collects all directories in a source directory that are not skipped.
+     *
+     * @param directory
+     *            source directory
+     * @return list of directories, including the source directory
+     */
+    List<Path> directories(String directory) {
+        List<Path> result = new ArrayList<>();
+        walk(Paths.get(directory), result, null);
+        return result;
+    }
+
+    /**
+     * Checks whether a file is selected by the patterns.
+     *
+     * @param directories
+     *            source directories
+     * @param file
+     *            the file to check
+     * @return {@code true} if the file lies in a source directory and is selected
+     */
+    boolean accepts(Collection<String> directories, Path file) {
+        return root(directories, file) //
+                .map(root -> root.relativize(file.toAbsolutePath().normalize())) //
+                .filter(this::isSelected) //
+                .filter(relative -> !isInSkippedDirectory(relative)) //
+                .isPresent();
+    }
+
+    private Optional<Path> root(Collection<String> directories, Path file) {
+        Path absolute = file.toAbsolutePath().normalize();
+        return stream(directories) //
+                .map(d -> Paths.get(d).toAbsolutePath().normalize()) //
+                .filter(absolute::startsWith) //
+                .findFirst();
+    }
+
+    private boolean isInSkippedDirectory(Path relative) {
+        for (Path dir = relative.getParent(); dir != null; dir = dir.getParent()) {
+            if (isSkipped(dir)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Recursivly walks through the directory and collects all selected files.
+     *
+     * @param directory
+     *            directory to traverse
+     * @return list of java files
+     */
+    private List<File> walk(String directory) {
+        List<File> result = new ArrayList<>();
+        walk(Paths.get(directory), null, result);
+        return result;
+    }
+
+    private void walk(Path root, List<Path> directories, List<File> files) {
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(root) && isSkipped(root.relativize(dir))) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    if (directories != null) {
+                        directories.add(dir);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (files != null && attrs.isRegularFile() && isSelected(root.relativize(file))) {
+                        files.add(file.toFile());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private boolean isSkipped(Path relativeDirectory) {
+        return relativeDirectory.getFileName().toString().startsWith(".") || matchesAny(excludes, relativeDirectory);
+    }
+
+    private boolean isSelected(Path relativeFile) {
+        return relativeFile.getFileName().toString().endsWith(".java") //
+                && matchesAny(includes, relativeFile) //
+                && !matchesAny(excludes, relativeFile);
+    }
+
+    private static boolean matchesAny(List<PathMatcher> matchers, Path path) {
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<PathMatcher> matchers(Collection<String> patterns) {
+        return stream(patterns) //
+                .map(String::trim) //
+                .filter(p -> !p.isEmpty()) //
+                .flatMap(SourceFiles::variants) //
+                .map(p -> FileSystems.getDefault().getPathMatcher("glob:" + p)) //
+                .collect(toList());
+    }
+
+    private static Stream<String> variants(String pattern) {
+        List<String> result = new ArrayList<>();
+        result.add(pattern);
+        if (pattern.startsWith("**/")) {
+            result.add(pattern.substring(3));
+        }
+        for (int n = result.size() - 1; n >= 0; n--) {
+            if (result.get(n).endsWith("/**")) {
+                result.add(result.get(n).substring(0, result.get(n).length() - 3));
+            }
+        }
+        return result.stream();
+    }
+}
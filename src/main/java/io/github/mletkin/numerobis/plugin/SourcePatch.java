@@ -0,0 +1,363 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.github.javaparser.Position;
+import com.github.javaparser.Range;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.printer.PrettyPrinter;
+import com.github.javaparser.printer.PrettyPrinterConfiguration;
+
+import io.github.mletkin.numerobis.generator.Sorter;
+
+/**
+ * Applies the changes of the generator to the source text of a unit.
+ * <p>
+ * The imports, annotations and members of the unit are remembered at creation.
+ * After generation only the differences are patched into the source text, all
+ * other text remains unchanged:
+ * <ul>
+ * <li>added imports are inserted behind the last import
+ * <li>removed type annotations are deleted
+ * <li>added members are pretty printed and inserted behind the last existing
+ * member of the same or lower rank, with the indentation of that member.
+ * Members of nested types are appended.
+ * </ul>
+ * Existing members are not sorted. Other changes, like removed members or
+ * members on the same line, can not be patched. The unit must then be printed
+ * as a whole.
+ */
+final class SourcePatch {
+
+    private static final ThreadLocal<PrettyPrinter> PRINTER = ThreadLocal.withInitial(
+            () -> new PrettyPrinter(new PrettyPrinterConfiguration().setEndOfLineCharacter("\n")));
+
+    private final CompilationUnit unit;
+    private final String source;
+    private final String lineSeparator;
+    private final List<Integer> lineStarts = new ArrayList<>();
+
+    private final List<ImportDeclaration> imports;
+    private final Map<TypeDeclaration<?>, Snapshot> types = new IdentityHashMap<>();
+    private final List<Edit> edits = new ArrayList<>();
+
+    /**
+     * Remembers the state of a parsed unit.
+     *
+     * @param unit
+     *            the unit parsed from the source, before any change
+     * @param source
+     *            the source text
+     */
+    SourcePatch(CompilationUnit unit, String source) {
+        this.unit = unit;
+        this.source = source;
+        this.lineSeparator = source.contains("\r\n") ? "\r\n" : "\n";
+        this.imports = new ArrayList<>(unit.getImports());
+        unit.findAll(TypeDeclaration.class).forEach(type -> types.put(type, new Snapshot(type)));
+        indexLines();
+    }
+
+    private void indexLines() {
+        lineStarts.add(0);
+        for (int n = 0; n < source.length(); n++) {
+            char c = source.charAt(n);
+            if (c == '\n' || (c == '\r' && (n + 1 == source.length() || source.charAt(n + 1) != '\n'))) {
+                lineStarts.add(n + 1);
+            }
+        }
+    }
+
+    /**
+     * Computes the patch for the changes since creation.
+     *
+     * @param sorter
+     *            sorter to rank the added members
+     * @return {@code true} if all changes can be patched
+     */
+    boolean prepare(Sorter sorter) {
+        edits.clear();
+        if (!patchImports()) {
+            return false;
+        }
+        for (TypeDeclaration<?> type : unit.getTypes()) {
+            if (!patchType(type, sorter)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the prepared patch changes the source.
+     *
+     * @return {@code true} if the patch contains at least one edit
+     */
+    boolean isChanged() {
+        return !edits.isEmpty();
+    }
+
+    /**
+     * Applies the prepared patch to the source.
+     *
+     * @return the patched source text
+     */
+    String print() {
+        List<Edit> sorted = new ArrayList<>(edits);
+        sorted.sort(Comparator.comparingInt(e -> e.start));
+        StringBuilder result = new StringBuilder(source.length() + 1024);
+        int position = 0;
+        for (Edit edit : sorted) {
+            result.append(source, position, edit.start).append(edit.text);
+            position = Math.max(position, edit.end);
+        }
+        return result.append(source, position, source.length()).toString();
+    }
+
+    private boolean patchImports() {
+        List<ImportDeclaration> added = added(imports, unit.getImports());
+        if (added.isEmpty()) {
+            return true;
+        }
+        if (imports.isEmpty() || !unit.getImports().containsAll(imports)) {
+            return false;
+        }
+        int offset = lineEnd(imports.get(imports.size() - 1));
+        if (offset < 0) {
+            return false;
+        }
+        StringBuilder text = new StringBuilder();
+        added.forEach(i -> text.append(print(i)).append(lineSeparator));
+        edits.add(new Edit(offset, offset, text.toString()));
+        return true;
+    }
+
+    private boolean patchType(TypeDeclaration<?> type, Sorter sorter) {
+        Snapshot snapshot = types.get(type);
+        if (snapshot == null || !added(snapshot.annotations, type.getAnnotations()).isEmpty()
+                || !identical(type.getMembers(), snapshot.members)) {
+            return false;
+        }
+        for (AnnotationExpr annotation : snapshot.annotations) {
+            if (!contains(type.getAnnotations(), annotation) && !delete(annotation)) {
+                return false;
+            }
+        }
+        for (BodyDeclaration<?> member : snapshot.members) {
+            if (member instanceof TypeDeclaration && !patchType((TypeDeclaration<?>) member, sorter)) {
+                return false;
+            }
+        }
+        List<BodyDeclaration<?>> added = added(snapshot.members, type.getMembers());
+        if (type.isTopLevelType()) {
+            added.sort(Comparator.comparingInt(sorter::rank));
+        }
+        for (BodyDeclaration<?> member : added) {
+            Optional<BodyDeclaration<?>> anchor = anchor(snapshot.members, member, type.isTopLevelType() ? sorter : null);
+            if (!anchor.isPresent() || !insertBehind(anchor.get(), member, snapshot.members)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the existing member behind which an added member is inserted.
+     *
+     * @param members
+     *            the existing members
+     * @param member
+     *            the added member
+     * @param sorter
+     *            sorter for ranking, {@code null} to append
+     * @return the last existing member with the same or a lower rank
+     */
+    private static Optional<BodyDeclaration<?>> anchor(List<BodyDeclaration<?>> members, BodyDeclaration<?> member,
+            Sorter sorter) {
+        for (int n = members.size() - 1; n >= 0; n--) {
+            if (sorter == null || sorter.rank(members.get(n)) <= sorter.rank(member)) {
+                return Optional.of(members.get(n));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private boolean insertBehind(BodyDeclaration<?> anchor, BodyDeclaration<?> member,
+            List<BodyDeclaration<?>> members) {
+        Optional<Range> range = range(anchor);
+        int offset = lineEnd(anchor);
+        if (!range.isPresent() || offset < 0 || !startsLineAfter(members, anchor)) {
+            return false;
+        }
+        int lineStart = lineStarts.get(range.get().begin.line - 1);
+        String indentation = source.substring(lineStart, offset(range.get().begin));
+        if (!indentation.trim().isEmpty()) {
+            return false;
+        }
+        StringBuilder text = new StringBuilder(lineSeparator);
+        for (String line : print(member).split("\n")) {
+            if (!line.isEmpty()) {
+                text.append(indentation).append(line);
+            }
+            text.append(lineSeparator);
+        }
+        edits.add(new Edit(offset, offset, text.toString()));
+        return true;
+    }
+
+    /**
+     * Checks that no other member starts on the line where a member ends.
+     */
+    private static boolean startsLineAfter(List<BodyDeclaration<?>> members, BodyDeclaration<?> anchor) {
+        int endLine = anchor.getRange().get().end.line;
+        return members.stream() //
+                .filter(m -> m != anchor) //
+                .map(SourcePatch::range) //
+                .allMatch(r -> r.isPresent() && (r.get().begin.line > endLine || r.get().end.line < endLine));
+    }
+
+    /**
+     * Deletes an annotation with the following blanks, or the whole line if the
+     * annotation is alone on its line.
+     */
+    private boolean delete(AnnotationExpr annotation) {
+        Optional<Range> range = annotation.getRange();
+        if (!range.isPresent()) {
+            return false;
+        }
+        int start = offset(range.get().begin);
+        int end = offset(range.get().end) + 1;
+        while (end < source.length() && (source.charAt(end) == ' ' || source.charAt(end) == '\t')) {
+            end++;
+        }
+        int lineStart = lineStarts.get(range.get().begin.line - 1);
+        if (source.substring(lineStart, start).trim().isEmpty() && source.startsWith(lineSeparator, end)) {
+            start = lineStart;
+            end += lineSeparator.length();
+        }
+        edits.add(new Edit(start, end, ""));
+        return true;
+    }
+
+    /**
+     * Returns the offset behind the line separator of the line where a node ends.
+     *
+     * @return the offset or -1 if the line has no separator
+     */
+    private int lineEnd(Node node) {
+        Optional<Range> range = node.getRange();
+        if (!range.isPresent() || range.get().end.line >= lineStarts.size()) {
+            return -1;
+        }
+        return lineStarts.get(range.get().end.line);
+    }
+
+    /**
+     * Returns the range of a node including its comment.
+     */
+    private static Optional<Range> range(Node node) {
+        Optional<Range> range = node.getRange();
+        Optional<Range> comment = node.getComment().flatMap(Node::getRange);
+        if (range.isPresent() && comment.isPresent() && comment.get().begin.isBefore(range.get().begin)) {
+            return Optional.of(new Range(comment.get().begin, range.get().end));
+        }
+        return range;
+    }
+
+    private int offset(Position position) {
+        return lineStarts.get(position.line - 1) + position.column - 1;
+    }
+
+    private static String print(Node node) {
+        String text = PRINTER.get().print(node);
+        int end = text.length();
+        while (end > 0 && text.charAt(end - 1) == '\n') {
+            end--;
+        }
+        return text.substring(0, end);
+    }
+
+    private static <T> List<T> added(List<T> before, List<? extends T> after) {
+        Set<T> existing = Collections.newSetFromMap(new IdentityHashMap<>());
+        existing.addAll(before);
+        List<T> result = new ArrayList<>();
+        for (T element : after) {
+            if (!existing.contains(element)) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+
+    private static boolean contains(List<?> list, Object element) {
+        return list.stream().anyMatch(e -> e == element);
+    }
+
+    /**
+     * Checks that all existing members are still present in their order.
+     */
+    private static boolean identical(List<? extends Node> current, List<? extends Node> existing) {
+        int n = 0;
+        for (Node node : current) {
+            if (n < existing.size() && node == existing.get(n)) {
+                n++;
+            }
+        }
+        return n == existing.size();
+    }
+
+    /**
+     * Annotations and members of a type at creation.
+     */
+    private static final class Snapshot {
+        private final List<AnnotationExpr> annotations;
+        private final List<BodyDeclaration<?>> members;
+
+        Snapshot(TypeDeclaration<?> type) {
+            this.annotations = new ArrayList<>(type.getAnnotations());
+            this.members = new ArrayList<>(type.getMembers());
+        }
+    }
+
+    /**
+     * Replacement of a text range.
+     */
+    private static final class Edit {
+        private final int start;
+        private final int end;
+        private final String text;
+
+        Edit(int start, int end, String text) {
+            this.start = start;
+            this.end = end;
+            this.text = text;
+        }
+    }
+}
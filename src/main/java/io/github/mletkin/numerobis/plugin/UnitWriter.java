@@ -0,0 +1,189 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.printer.PrettyPrinter;
+import com.github.javaparser.printer.PrettyPrinterConfiguration;
+
+/**
+ * Prints compilation units and stores them in files.
+ * <p>
+ * Each thread uses its own pretty printer, configured like the printer of
+ * {@code Node.toString()}. The printed source is encoded in chunks with the
+ * charset of the project sources while it is compared with the file or written
+ * through a buffered writer on the file channel. No byte array with the whole
+ * content is created. Characters that can not be encoded are replaced.
+ * <p>
+ * May be used by concurrent threads.
+ */
+final class UnitWriter {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final ThreadLocal<PrettyPrinter> PRINTER = //
+            ThreadLocal.withInitial(() -> new PrettyPrinter(new PrettyPrinterConfiguration()));
+
+    private final Charset charset;
+    private final ThreadLocal<Buffers> buffers;
+
+    /**
+     * Creates a writer for the given encoding.
+     *
+     * @param charset
+     *            encoding of the java files
+     */
+    UnitWriter(Charset charset) {
+        this.charset = charset;
+        this.buffers = ThreadLocal.withInitial(() -> new Buffers(encoder(charset)));
+    }
+
+    Charset charset() {
+        return charset;
+    }
+
+    /**
+     * Prints a compilation unit.
+     *
+     * @param unit
+     *            the unit to print
+     * @return the java source
+     */
+    String print(CompilationUnit unit) {
+        return PRINTER.get().print(unit);
+    }
+
+    /**
+     * Checks whether a file contains the encoded source.
+     * <p>
+     * The file is read until the first difference.
+     *
+     * @param path
+     *            path of the file to check
+     * @param content
+     *            expected source
+     * @return {@code true} if the file exists and has exactly the given content
+     * @throws IOException
+     *             if the file can not be read
+     */
+    boolean hasContent(Path path, String content) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        Buffers buf = buffers.get();
+        CharsetEncoder encoder = buf.encoder.reset();
+        CharBuffer chars = CharBuffer.wrap(content);
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            boolean flushing = false;
+            boolean done = false;
+            while (!done) {
+                buf.expected.clear();
+                CoderResult result = flushing //
+                        ? encoder.flush(buf.expected)
+                        : encoder.encode(chars, buf.expected, true);
+                if (!flushing && result.isUnderflow()) {
+                    flushing = true;
+                    result = encoder.flush(buf.expected);
+                }
+                if (result.isError()) {
+                    result.throwException();
+                }
+                done = flushing && result.isUnderflow();
+                buf.expected.flip();
+                if (!read(channel, buf.actual, buf.expected.remaining()) || !buf.actual.equals(buf.expected)) {
+                    return false;
+                }
+            }
+            return channel.position() == channel.size();
+        }
+    }
+
+    private static boolean read(FileChannel channel, ByteBuffer buffer, int length) throws IOException {
+        buffer.clear().limit(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    /**
+     * Writes the encoded source to a file.
+     * <p>
+     * The file is created or truncated, the directory must exist.
+     *
+     * @param path
+     *            path of the file to write
+     * @param content
+     *            the source to store
+     * @return the number of bytes written
+     * @throws IOException
+     *             if the file can not be written
+     */
+    long write(Path path, String content) throws IOException {
+        char[] chunk = buffers.get().chars;
+        try (FileChannel channel = FileChannel.open(path, CREATE, TRUNCATE_EXISTING, WRITE);
+                Writer writer = Channels.newWriter(channel, encoder(charset), BUFFER_SIZE)) {
+            for (int start = 0; start < content.length(); start += chunk.length) {
+                int end = Math.min(start + chunk.length, content.length());
+                content.getChars(start, end, chunk, 0);
+                writer.write(chunk, 0, end - start);
+            }
+            writer.flush();
+            return channel.size();
+        }
+    }
+
+    private static CharsetEncoder encoder(Charset charset) {
+        return charset.newEncoder() //
+                .onMalformedInput(CodingErrorAction.REPLACE) //
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Encoder and buffers, reused by a thread.
+     */
+    private static final class Buffers {
+        private final CharsetEncoder encoder;
+        private final ByteBuffer expected = ByteBuffer.allocate(BUFFER_SIZE);
+        private final ByteBuffer actual = ByteBuffer.allocate(BUFFER_SIZE);
+        private final char[] chars = new char[BUFFER_SIZE];
+
+        Buffers(CharsetEncoder encoder) {
+            this.encoder = encoder;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.stream.Collectors.toList;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLClassLoader;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+/**
+ * Entry point for the watch mode of the generator plugin.
+ * <ul>
+ * <li>processes all java files once like the generate goal
+ * <li>watches the source directories for changes
+ * <li>processes changed java files after a burst of changes has settled
+ * <li>ignores changes caused by the generator itself
+ * </ul>
+ * The goal runs until maven is terminated.
+ */
+@Mojo(name = "watch", requiresDependencyResolution = ResolutionScope.COMPILE)
+public class WatchMojo extends BuilderMojo {
+
+    /**
+     * Time in milliseconds without changes before changed files are processed.
+     */
+    @Parameter(property = "numerobis.debounce", defaultValue = "300")
+    private long debounce;
+
+    private ClassLoader loader;
+    private Map<WatchKey, Path> directories = new HashMap<>();
+    private Map<Path, byte[]> generated = new ConcurrentHashMap<>();
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        try (URLClassLoader loader = compileClassLoader();
+                WatchService service = FileSystems.getDefault().newWatchService()) {
+            generateAll(loader);
+            for (String root : compileSourceRoots()) {
+                if (Files.isDirectory(Paths.get(root))) {
+                    register(service, Paths.get(root));
+                }
+            }
+            getLog().info("watching for changes, press Ctrl-C to stop");
+            while (!Thread.currentThread().isInterrupted()) {
+                processChanges(awaitChanges(service));
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("watching source directories failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Processes all java files once, a failure does not stop the watch mode.
+     *
+     * @param loader
+     *            class loader for the compile class path, used for the whole
+     *            session
+     * @throws MojoFailureException
+     *             if the configuration is invalid
+     */
+    void generateAll(ClassLoader loader) throws MojoFailureException {
+        this.loader = loader;
+        try {
+            generate(loader);
+        } catch (MojoExecutionException e) {
+            getLog().error(e.getMessage());
+        }
+    }
+
+    @Override
+    List<Path> processFile(File file) {
+        List<Path> paths = super.processFile(file);
+        for (Path path : paths) {
+            contentHash(path).ifPresent(hash -> generated.put(key(path), hash));
+        }
+        return paths;
+    }
+
+    /**
+     * Waits for changes and collects events until no change occurs for the
+     * debounce period.
+     *
+     * @param service
+     *            watch service with the registered directories
+     * @return the changed paths
+     * @throws InterruptedException
+     *             if the thread was interrupted while waiting
+     * @throws IOException
+     *             if a new directory can not be registered
+     */
+    private Set<Path> awaitChanges(WatchService service) throws InterruptedException, IOException {
+        Set<Path> changed = new LinkedHashSet<>();
+        collect(service, service.take(), changed);
+        WatchKey key;
+        while ((key = service.poll(debounce, TimeUnit.MILLISECONDS)) != null) {
+            collect(service, key, changed);
+        }
+        return changed;
+    }
+
+    private void collect(WatchService service, WatchKey key, Set<Path> changed) throws IOException {
+        Path directory = directories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                sourceFiles().stream().map(File::toPath).forEach(changed::add);
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                register(service, path);
+                sourceFiles().stream().map(File::toPath).filter(p -> p.startsWith(path)).forEach(changed::add);
+            }
+            changed.add(path);
+        }
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+    }
+
+    /**
+     * Processes the changed java files as one batch.
+     * <p>
+     * Files outside the source directories or not selected by the patterns and
+     * files unchanged since the generator wrote them are ignored. The java
+     * files that depend on a changed file are processed too. The index of the
+     * declared types is created anew, the measurements of the previous batch
+     * are discarded.
+     *
+     * @param changed
+     *            the changed paths reported by the watch service
+     */
+    void processChanges(Set<Path> changed) {
+        SourceFiles filter = sourceFileFilter();
+        List<Path> edited = changed.stream() //
+                .filter(p -> filter.accepts(compileSourceRoots(), p)) //
+                .filter(p -> !isGenerated(p)) //
+                .collect(toList());
+        if (edited.isEmpty()) {
+            return;
+        }
+        List<File> sourceFiles = sourceFiles();
+        if (edited.stream().anyMatch(p -> !Files.exists(p))) {
+            removeStaleFiles(sourceFiles);
+        }
+        Set<File> files = new LinkedHashSet<>();
+        edited.stream().filter(Files::isRegularFile).map(p -> key(p).toFile()).forEach(files::add);
+        files.forEach(f -> getLog().info("changed: " + f));
+        state().dependents(edited).stream().filter(File::isFile).forEach(files::add);
+        if (files.isEmpty()) {
+            return;
+        }
+        processor().startBatch();
+        processor().withTypeResolver(typeResolver(loader, sourceFiles));
+        try {
+            process(new ArrayList<>(files));
+        } catch (MojoExecutionException e) {
+            getLog().error(e.getMessage());
+        }
+    }
+
+    /**
+     * Checks whether the current version of a file was written by the generator.
+     * <p>
+     * The content is compared, the modification time may not change for an
+     * edit on file systems with a coarse time resolution.
+     *
+     * @param path
+     *            path of the file to check
+     * @return {@code true} if the file is unchanged since it was generated
+     */
+    private boolean isGenerated(Path path) {
+        byte[] written = generated.get(key(path));
+        return written != null && contentHash(path).filter(hash -> Arrays.equals(hash, written)).isPresent();
+    }
+
+    private void register(WatchService service, Path root) throws IOException {
+        for (Path dir : sourceFileFilter().directories(root.toString())) {
+            directories.put(dir.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir);
+        }
+    }
+
+    private static Optional<byte[]> contentHash(Path path) {
+        try {
+            return Optional.of(BuildState.hash(path.toFile()));
+        } catch (UncheckedIOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Path key(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+}
@@ -20,10 +20,15 @@ import static io.github.mletkin.numerobis.Util.uncheckExceptions;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 
 import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.BodyDeclaration;
 
 import io.github.mletkin.numerobis.generator.Sorter;
 import io.github.mletkin.numerobis.plugin.Naming;
@@ -84,4 +89,28 @@ class SorterTest {
 
     }
 
+    @Test
+    void membersWithEqualRankKeepTheirOrder() {
+        CompilationUnit cu = StaticJavaParser.parse("class A { void b() {} int y; void a() {} int x; A withB() {} }");
+
+        assertThat(memberNames(new Sorter(Naming.DEFAULT).sort(cu))).containsExactly("y", "x", "withB", "b", "a");
+    }
+
+    @Test
+    void sortedMembersAreNotMoved() {
+        CompilationUnit cu = StaticJavaParser.parse("class A { int x; A() {} A withX() {} void foo() {} }");
+        List<BodyDeclaration<?>> before = new ArrayList<>(cu.getType(0).getMembers());
+
+        new Sorter(Naming.DEFAULT).sort(cu);
+
+        assertThat(cu.getType(0).getMembers()).containsExactlyElementsOf(before);
+    }
+
+    private List<String> memberNames(CompilationUnit cu) {
+        return cu.getType(0).getMembers().stream() //
+                .map(bd -> bd.isFieldDeclaration() //
+                        ? bd.asFieldDeclaration().getVariable(0).getNameAsString()
+                        : bd.asMethodDeclaration().getNameAsString()) //
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,335 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.corpus;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Writes a synthetic tree of product classes for scale tests and benchmarks.
+ * <ul>
+ * <li>creates packages with product classes and plain classes
+ * <li>plain classes do not reference any annotation of the generator
+ * <li>each class imports only the types it uses
+ * <li>fields of simple types, lists and sets
+ * <li>adder and list mutator variant annotations
+ * <li>constructors with parameters, {@code @Ignore}d fields and constructors
+ * <li>optional pre-existing separate or embedded builders
+ * </ul>
+ * The corpus is completely determined by the settings and the seed.
+ */
+public class CorpusGenerator {
+
+    private static final String[] SIMPLE_TYPES = { "int", "long", "boolean", "double", "String" };
+    private static final String[] COLLECTION_TYPES = { "List<String>", "Set<Integer>" };
+    private static final String[] ADDER_VARIANTS = { "VARARG", "ITEM", "STREAM", "COLLECTION" };
+    private static final String[] MUTATOR_VARIANTS = { "OBJECT", "VARARG", "STREAM", "COLLECTION" };
+
+    private int packages = 10;
+    private int classesPerPackage = 100;
+    private int minFields = 1;
+    private int maxFields = 20;
+    private int maxConstructors = 3;
+    private double collectionRatio = 0.2;
+    private double variantRatio = 0.5;
+    private double ignoreRatio = 0.05;
+    private double productRatio = 0.9;
+    private double accessorRatio = 0.1;
+    private double plainRatio = 0.1;
+    private double existingBuilderRatio;
+    private boolean embeddedBuilders;
+    private long seed;
+
+    public CorpusGenerator withPackages(int packages) {
+        this.packages = packages;
+        return this;
+    }
+
+    public CorpusGenerator withClassesPerPackage(int classesPerPackage) {
+        this.classesPerPackage = classesPerPackage;
+        return this;
+    }
+
+    public CorpusGenerator withFields(int minFields, int maxFields) {
+        this.minFields = minFields;
+        this.maxFields = Math.max(minFields, maxFields);
+        return this;
+    }
+
+    public CorpusGenerator withMaxConstructors(int maxConstructors) {
+        this.maxConstructors = maxConstructors;
+        return this;
+    }
+
+    public CorpusGenerator withCollectionRatio(double collectionRatio) {
+        this.collectionRatio = collectionRatio;
+        return this;
+    }
+
+    public CorpusGenerator withVariantRatio(double variantRatio) {
+        this.variantRatio = variantRatio;
+        return this;
+    }
+
+    public CorpusGenerator withIgnoreRatio(double ignoreRatio) {
+        this.ignoreRatio = ignoreRatio;
+        return this;
+    }
+
+    public CorpusGenerator withProductRatio(double productRatio) {
+        this.productRatio = productRatio;
+        return this;
+    }
+
+    public CorpusGenerator withAccessorRatio(double accessorRatio) {
+        this.accessorRatio = accessorRatio;
+        return this;
+    }
+
+    /**
+     * Sets the ratio of classes without any annotation of the generator.
+     * <p>
+     * Plain classes are rejected by the annotation prefilter without parsing.
+     *
+     * @param plainRatio
+     *            ratio between 0 and 1
+     * @return the generator instance
+     */
+    public CorpusGenerator withPlainRatio(double plainRatio) {
+        this.plainRatio = plainRatio;
+        return this;
+    }
+
+    /**
+     * Sets the ratio of products with a builder from a previous run.
+     *
+     * @param existingBuilderRatio
+     *            ratio between 0 and 1
+     * @param embedded
+     *            {@code true} for embedded, {@code false} for separate builders
+     * @return the generator instance
+     */
+    public CorpusGenerator withExistingBuilders(double existingBuilderRatio, boolean embedded) {
+        this.existingBuilderRatio = existingBuilderRatio;
+        this.embeddedBuilders = embedded;
+        return this;
+    }
+
+    public CorpusGenerator withSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Writes the corpus to a source directory.
+     *
+     * @param root
+     *            the source directory
+     * @return the paths of all written files
+     * @throws IOException
+     *             if a file can not be written
+     */
+    public List<Path> write(Path root) throws IOException {
+        Random random = new Random(seed);
+        List<Path> written = new ArrayList<>();
+        for (int p = 0; p < packages; p++) {
+            String pkg = String.format("corpus.p%04d", p);
+            Path dir = root.resolve(pkg.replace('.', '/'));
+            Files.createDirectories(dir);
+            for (int c = 0; c < classesPerPackage; c++) {
+                String name = String.format("C%04d", c);
+                ProductClass product = new ProductClass(pkg, name, random);
+                written.add(write(dir.resolve(name + ".java"), product.source()));
+                if (product.separateBuilder) {
+                    written.add(write(dir.resolve(name + "Builder.java"), product.builderSource()));
+                }
+            }
+        }
+        return written;
+    }
+
+    private static Path write(Path file, String content) throws IOException {
+        return Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes a corpus from the command line.
+     * <p>
+     * Arguments: directory, packages, classes per package, seed
+     *
+     * @param args
+     *            command line arguments
+     * @throws IOException
+     *             if a file can not be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: CorpusGenerator <dir> [packages] [classes per package] [seed]");
+            System.exit(2);
+        }
+        CorpusGenerator generator = new CorpusGenerator();
+        if (args.length > 1) {
+            generator.withPackages(Integer.parseInt(args[1]));
+        }
+        if (args.length > 2) {
+            generator.withClassesPerPackage(Integer.parseInt(args[2]));
+        }
+        if (args.length > 3) {
+            generator.withSeed(Long.parseLong(args[3]));
+        }
+        List<Path> files = generator.write(Paths.get(args[0]));
+        System.out.println(files.size() + " files written to " + args[0]);
+    }
+
+    /**
+     * Random shape of a single class.
+     */
+    private class ProductClass {
+        private final String pkg;
+        private final String name;
+        private final boolean plain;
+        private final boolean product;
+        private final boolean accessors;
+        private final boolean separateBuilder;
+        private final boolean embeddedBuilder;
+        private final List<String> fields = new ArrayList<>();
+        private final List<String> constructors = new ArrayList<>();
+        private final Set<String> imports = new TreeSet<>();
+
+        ProductClass(String pkg, String name, Random random) {
+            this.pkg = pkg;
+            this.name = name;
+            this.plain = random.nextDouble() < plainRatio;
+            this.product = !plain && random.nextDouble() < productRatio;
+            this.accessors = !plain && random.nextDouble() < accessorRatio;
+            boolean existing = product && random.nextDouble() < existingBuilderRatio;
+            this.separateBuilder = existing && !embeddedBuilders;
+            this.embeddedBuilder = existing && embeddedBuilders;
+
+            int fieldCount = minFields + random.nextInt(maxFields - minFields + 1);
+            for (int n = 0; n < fieldCount; n++) {
+                fields.add(field(n, random));
+            }
+            int constructorCount = random.nextInt(maxConstructors + 1);
+            for (int n = 0; n < constructorCount; n++) {
+                constructors.add(constructor(n, n > 0 && random.nextDouble() < ignoreRatio));
+            }
+            if (product) {
+                annotation("GenerateBuilder");
+            }
+            if (accessors) {
+                annotation("GenerateAccessors");
+            }
+        }
+
+        private String annotation(String annotation) {
+            imports.add("io.github.mletkin.numerobis.annotation." + annotation);
+            return annotation;
+        }
+
+        private String type(String type) {
+            imports.add("java.util." + type.substring(0, type.indexOf('<')));
+            return type;
+        }
+
+        private String field(int n, Random random) {
+            StringBuilder field = new StringBuilder();
+            if (random.nextDouble() < ignoreRatio && !plain) {
+                field.append("    @").append(annotation("Ignore")).append("\n");
+            }
+            if (random.nextDouble() < collectionRatio) {
+                if (random.nextDouble() < variantRatio && !plain) {
+                    field.append(random.nextBoolean() //
+                            ? variants("GenerateAdder", ADDER_VARIANTS, random)
+                            : variants("GenerateListMutator", MUTATOR_VARIANTS, random));
+                }
+                field.append("    ").append(type(pick(COLLECTION_TYPES, random))).append(" items").append(n).append(";\n");
+            } else {
+                field.append("    ").append(pick(SIMPLE_TYPES, random)).append(" field").append(n).append(";\n");
+            }
+            return field.toString();
+        }
+
+        private String variants(String annotation, String[] variants, Random random) {
+            StringBuilder result = new StringBuilder("    @").append(annotation(annotation)).append("(variants = { ");
+            int count = 1 + random.nextInt(variants.length);
+            int start = random.nextInt(variants.length);
+            for (int n = 0; n < count; n++) {
+                result.append(n == 0 ? "" : ", ") //
+                        .append(annotation).append(".Variant.").append(variants[(start + n) % variants.length]);
+            }
+            return result.append(" })\n").toString();
+        }
+
+        private String constructor(int parameters, boolean ignore) {
+            StringBuilder constructor = new StringBuilder();
+            if (ignore && !plain) {
+                constructor.append("    @").append(annotation("Ignore")).append("\n");
+            }
+            constructor.append("    public ").append(name).append("(");
+            for (int n = 0; n < parameters; n++) {
+                constructor.append(n == 0 ? "" : ", ").append("int arg").append(n);
+            }
+            return constructor.append(") {\n    }\n").toString();
+        }
+
+        String source() {
+            StringBuilder src = new StringBuilder("package ").append(pkg).append(";\n\n");
+            imports.forEach(i -> src.append("import ").append(i).append(";\n"));
+            if (!imports.isEmpty()) {
+                src.append("\n");
+            }
+            if (product) {
+                src.append("@GenerateBuilder\n");
+            }
+            if (accessors) {
+                src.append("@GenerateAccessors\n");
+            }
+            src.append("public class ").append(name).append(" {\n\n");
+            fields.forEach(src::append);
+            constructors.forEach(src::append);
+            if (embeddedBuilder) {
+                src.append("\n    public static class Builder {\n") //
+                        .append("        private ").append(name).append(" product;\n") //
+                        .append("    }\n");
+            }
+            return src.append("}\n").toString();
+        }
+
+        String builderSource() {
+            return new StringBuilder("package ").append(pkg).append(";\n\n") //
+                    .append("public class ").append(name).append("Builder {\n\n") //
+                    .append("    private ").append(name).append(" product;\n\n") //
+                    .append("    public ").append(name).append(" build() {\n") //
+                    .append("        return product;\n") //
+                    .append("    }\n") //
+                    .append("}\n") //
+                    .toString();
+        }
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+}
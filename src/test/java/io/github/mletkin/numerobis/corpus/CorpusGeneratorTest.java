@@ -0,0 +1,101 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.corpus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+
+class CorpusGeneratorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void corpusIsDeterminedBySeed() throws IOException {
+        List<String> first = contents(corpus(42).write(dir.resolve("a")));
+        List<String> second = contents(corpus(42).write(dir.resolve("b")));
+        List<String> other = contents(corpus(43).write(dir.resolve("c")));
+
+        assertThat(first).isEqualTo(second);
+        assertThat(first).isNotEqualTo(other);
+    }
+
+    @Test
+    void packagesAndClassesAreCreated() throws IOException {
+        List<Path> files = corpus(1).withProductRatio(1).write(dir);
+
+        assertThat(files).hasSize(12);
+        assertThat(dir.resolve("corpus/p0002/C0003.java")).exists();
+    }
+
+    @Test
+    void existingBuildersAreWritten() throws IOException {
+        List<Path> files = corpus(1).withPlainRatio(0).withProductRatio(1).withExistingBuilders(1, false).write(dir);
+
+        assertThat(files).hasSize(24);
+        assertThat(dir.resolve("corpus/p0000/C0000Builder.java")).exists();
+    }
+
+    @Test
+    void sourcesCanBeParsed() throws IOException {
+        for (Path file : corpus(7).withCollectionRatio(0.5).withExistingBuilders(0.5, true).write(dir)) {
+            StaticJavaParser.parse(file);
+        }
+    }
+
+    @Test
+    void plainClassesDoNotReferenceAnnotations() throws IOException {
+        for (String source : contents(corpus(3).withPlainRatio(1).withCollectionRatio(0.5).write(dir))) {
+            assertThat(source).doesNotContain("@").doesNotContain("numerobis");
+        }
+    }
+
+    @Test
+    void onlyUsedTypesAreImported() throws IOException {
+        for (Path file : corpus(5).withCollectionRatio(0.5).write(dir)) {
+            CompilationUnit unit = StaticJavaParser.parse(file);
+            String body = unit.getPrimaryType().get().toString();
+            for (ImportDeclaration declaration : unit.getImports()) {
+                String name = declaration.getName().getIdentifier();
+                assertThat(body).as(file.toString()).containsPattern("\\b" + name + "\\b");
+            }
+        }
+    }
+
+    private static CorpusGenerator corpus(long seed) {
+        return new CorpusGenerator().withPackages(3).withClassesPerPackage(4).withSeed(seed);
+    }
+
+    private static List<String> contents(List<Path> files) throws IOException {
+        List<String> result = new ArrayList<>();
+        for (Path file : files) {
+            result.add(new String(Files.readAllBytes(file)));
+        }
+        return result;
+    }
+}
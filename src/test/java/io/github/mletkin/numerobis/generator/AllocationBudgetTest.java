@@ -0,0 +1,120 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+
+import io.github.mletkin.numerobis.Util;
+import io.github.mletkin.numerobis.common.ThreadAllocation;
+
+/**
+ * Checks the bytes allocated by the generator against the budgets in
+ * {@code allocation-budgets.properties}.
+ * <p>
+ * Each generation runs on a freshly parsed unit, parsing is not measured. The
+ * smallest value of several runs after a warm up is compared, so class loading
+ * and lazy initialization do not count. The budgets have some headroom for
+ * differences between JVMs, lower a budget when an optimization reduces the
+ * allocation.
+ */
+class AllocationBudgetTest {
+
+    private static final int WARM_UP = 5;
+    private static final int RUNS = 5;
+
+    private static Properties budgets = new Properties();
+
+    @BeforeAll
+    static void loadBudgets() throws IOException {
+        try (InputStream in = AllocationBudgetTest.class.getResourceAsStream("/allocation-budgets.properties")) {
+            budgets.load(in);
+        }
+    }
+
+    @ParameterizedTest(name = "{0} {1}")
+    @MethodSource
+    void allocationIsWithinBudget(String generation, String className) {
+        assumeTrue(ThreadAllocation.supported(), "thread allocation counting is not supported");
+
+        String key = generation + "." + className;
+        long allocated = minimalAllocation(className, generation(generation, className));
+        String budget = budgets.getProperty(key);
+
+        assertThat(budget).as("budget for %s, measured %d bytes", key, allocated).isNotNull();
+        assertThat(allocated).as("allocated bytes of %s", key).isLessThanOrEqualTo(Long.parseLong(budget.trim()));
+    }
+
+    static Stream<Arguments> allocationIsWithinBudget() {
+        return Stream.of("TestClassWithConstructor", "WithList", "AdderAnno", "AllocationProduct") //
+                .flatMap(c -> Stream.of( //
+                        Arguments.of("constructors.internal", c), //
+                        Arguments.of("constructors.external", c), //
+                        Arguments.of("factoryMethods.internal", c), //
+                        Arguments.of("factoryMethods.external", c), //
+                        Arguments.of("accessors", c)));
+    }
+
+    private static Consumer<CompilationUnit> generation(String generation, String className) {
+        Facade facade = new Facade(false);
+        switch (generation) {
+        case "constructors.internal":
+            return unit -> facade.withConstructors(unit, className);
+        case "constructors.external":
+            return unit -> facade.withConstructors(unit, className, new CompilationUnit());
+        case "factoryMethods.internal":
+            return unit -> facade.withFactoryMethods(unit, className);
+        case "factoryMethods.external":
+            return unit -> facade.withFactoryMethods(unit, className, new CompilationUnit());
+        case "accessors":
+            return unit -> facade.withAccessors(unit, className);
+        default:
+            throw new IllegalArgumentException(generation);
+        }
+    }
+
+    private static long minimalAllocation(String className, Consumer<CompilationUnit> generation) {
+        long minimum = Long.MAX_VALUE;
+        for (int n = 0; n < WARM_UP + RUNS; n++) {
+            CompilationUnit unit = parse(className);
+            long start = ThreadAllocation.current();
+            generation.accept(unit);
+            long allocated = ThreadAllocation.current() - start;
+            if (n >= WARM_UP) {
+                minimum = Math.min(minimum, allocated);
+            }
+        }
+        return minimum;
+    }
+
+    private static CompilationUnit parse(String className) {
+        return Util.uncheckExceptions(() -> StaticJavaParser.parseResource(className + ".java"));
+    }
+}
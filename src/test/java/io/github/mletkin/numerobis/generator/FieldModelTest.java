@@ -0,0 +1,110 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.type.Type;
+
+import io.github.mletkin.numerobis.generator.FieldModel.CollectionKind;
+import io.github.mletkin.numerobis.generator.common.TypeResolver;
+
+class FieldModelTest {
+
+    private TypeResolver resolver = TypeResolver.defaultResolver();
+
+    @Test
+    void collectionKindIsResolved() {
+        List<FieldModel> fields = fields("List<String> a; Set<String> b; Collection<String> c; int d;");
+
+        assertThat(fields).extracting(FieldModel::collectionKind).containsExactly( //
+                CollectionKind.LIST, CollectionKind.SET, CollectionKind.OTHER, CollectionKind.NONE);
+    }
+
+    @Test
+    void elementTypeIsResolved() {
+        FieldModel field = fields("List<String> a;").get(0);
+
+        assertThat(field.elementType(field.variables().get(0)).map(Type::asString)).contains("String");
+    }
+
+    @Test
+    void arrayOfCollectionsHasNoElementType() {
+        FieldModel field = fields("List<String> a, b[];").get(0);
+
+        assertThat(field.elementType(field.variables().get(0))).isPresent();
+        assertThat(field.elementType(field.variables().get(1))).isEmpty();
+    }
+
+    @Test
+    void annotationsAreRead() {
+        FieldModel field = fields("@Ignore @GenerateListMutator(name = \"setA\", variants = { ListMutatorVariant.STREAM }) " //
+                + "@GenerateAdder(variants = { ListMutatorVariant.VARARG }) List<String> a;").get(0);
+
+        assertThat(field.isIgnored()).isTrue();
+        assertThat(field.listMutatorName()).contains("setA");
+        assertThat(field.mutatorName()).isEmpty();
+        assertThat(field.listMutatorVariants()).containsExactly(ListMutatorVariant.STREAM);
+        assertThat(field.adderVariants()).containsExactly(ListMutatorVariant.VARARG);
+    }
+
+    @Test
+    void modelsAreStoredInTheClass() {
+        CompilationUnit cu = unit("List<String> a;");
+        ClassOrInterfaceDeclaration clazz = cu.getClassByName("Foo").get();
+
+        assertThat(FieldModel.of(clazz, cu, resolver)).isSameAs(FieldModel.of(clazz, cu, resolver));
+    }
+
+    @Test
+    void modelsAreCreatedAgainWhenFieldsChange() {
+        CompilationUnit cu = unit("List<String> a;");
+        ClassOrInterfaceDeclaration clazz = cu.getClassByName("Foo").get();
+        List<FieldModel> before = FieldModel.of(clazz, cu, resolver);
+
+        clazz.addField("int", "b");
+
+        assertThat(FieldModel.of(clazz, cu, resolver)).isNotSameAs(before).hasSize(2);
+    }
+
+    @Test
+    void modelsAreCreatedAgainForAnotherResolver() {
+        CompilationUnit cu = unit("List<String> a;");
+        ClassOrInterfaceDeclaration clazz = cu.getClassByName("Foo").get();
+        List<FieldModel> before = FieldModel.of(clazz, cu, resolver);
+
+        assertThat(FieldModel.of(clazz, cu, new TypeResolver(getClass().getClassLoader()))).isNotSameAs(before);
+    }
+
+    private List<FieldModel> fields(String fields) {
+        CompilationUnit cu = unit(fields);
+        return FieldModel.of(cu.getClassByName("Foo").get(), cu, resolver);
+    }
+
+    private CompilationUnit unit(String fields) {
+        return StaticJavaParser.parse("import java.util.*; " //
+                + "import io.github.mletkin.numerobis.annotation.*; " //
+                + "import io.github.mletkin.numerobis.generator.ListMutatorVariant; " //
+                + "class Foo { " + fields + " }");
+    }
+}
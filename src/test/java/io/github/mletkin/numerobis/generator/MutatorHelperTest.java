@@ -20,11 +20,13 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.type.ArrayType;
 import com.github.javaparser.ast.type.ClassOrInterfaceType;
 import com.github.javaparser.ast.type.PrimitiveType;
 
 import io.github.mletkin.numerobis.generator.common.ClassUtil;
+import io.github.mletkin.numerobis.generator.common.MemberIndex;
 import io.github.mletkin.numerobis.generator.mutator.MutatorMethodDescriptor;
 
 class MutatorHelperTest {
@@ -33,12 +35,13 @@ class MutatorHelperTest {
 
     BuilderGenerator generator() {
         BuilderGenerator mock = Mockito.mock(BuilderGenerator.class);
-        Mockito.when(mock.builderClass()).thenReturn(//
-                ClassUtil.findClass(StaticJavaParser.parse(//
-                        "class Foo{" //
-                                + "Foo test(int[] x) {}" //
-                                + "}"),
-                        "Foo").get());
+        ClassOrInterfaceDeclaration builderClass = ClassUtil.findClass(StaticJavaParser.parse(//
+                "class Foo{" //
+                        + "Foo test(int[] x) {}" //
+                        + "}"),
+                "Foo").get();
+        Mockito.when(mock.builderClass()).thenReturn(builderClass);
+        Mockito.when(mock.builderMembers()).thenReturn(new MemberIndex(builderClass));
         Mockito.when(mock.builderClassType()).thenReturn(//
                 new ClassOrInterfaceType("Foo"));
 
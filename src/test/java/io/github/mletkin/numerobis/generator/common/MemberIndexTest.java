@@ -0,0 +1,102 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.generator.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.Modifier;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.type.ArrayType;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.PrimitiveType;
+
+class MemberIndexTest {
+
+    private ClassOrInterfaceDeclaration foo = ClassUtil.findClass(StaticJavaParser.parse(//
+            "class Foo {" //
+                    + "int x, y;" //
+                    + "String name;" //
+                    + "Foo() {}" //
+                    + "Foo(int x) {}" //
+                    + "Foo withX(int x) {}" //
+                    + "Foo withX(int[] x) {}" //
+                    + "Foo withName(String name) {}" //
+                    + "static class Inner {" //
+                    + "  int z;" //
+                    + "  Inner withZ(int z) {}" //
+                    + "}" //
+                    + "}"),
+            "Foo").get();
+
+    private MemberIndex index = new MemberIndex(foo);
+
+    @Test
+    void onlyDirectMembersAreIndexed() {
+        assertThat(index.fields()).hasSize(2);
+        assertThat(index.constructors()).hasSize(2);
+        assertThat(index.methods()).hasSize(3);
+        assertThat(index.variable("z")).isEmpty();
+        assertThat(index.methodsWith("withZ", PrimitiveType.intType())).isEmpty();
+    }
+
+    @Test
+    void variablesAreFoundByName() {
+        assertThat(index.variable("y")).hasValueSatisfying(vd -> assertThat(vd.getTypeAsString()).isEqualTo("int"));
+        assertThat(index.variable("name")).isPresent();
+        assertThat(index.variable("unknown")).isEmpty();
+    }
+
+    @Test
+    void constructorsAreFoundByParameterTypes() {
+        assertThat(index.constructorsWith()).hasSize(1);
+        assertThat(index.constructorsWith(PrimitiveType.intType())).hasSize(1);
+        assertThat(index.constructorsWith(PrimitiveType.longType())).isEmpty();
+    }
+
+    @Test
+    void methodsAreFoundByNameAndParameterTypes() {
+        assertThat(index.methodsWith("withX", PrimitiveType.intType())).hasSize(1);
+        assertThat(index.methodsWith("withX", new ArrayType(PrimitiveType.intType()))).hasSize(1);
+        assertThat(index.methodsWith("withName", new ClassOrInterfaceType("String"))).hasSize(1);
+        assertThat(index.methodsWith("withX")).isEmpty();
+        assertThat(index.methodsWith("withY", PrimitiveType.intType())).isEmpty();
+    }
+
+    @Test
+    void methodsAreFoundByTemplate() {
+        MethodDeclaration template = StaticJavaParser.parseMethodDeclaration("void of(int x) {}");
+
+        assertThat(index.methodsLike("withX", template)).hasSize(1);
+        assertThat(index.constructorsLike(template)).hasSize(1);
+    }
+
+    @Test
+    void addedMethodIsFound() {
+        MethodDeclaration method = foo.addMethod("withY", Modifier.Keyword.PUBLIC);
+        method.addParameter(PrimitiveType.intType(), "y");
+
+        assertThat(index.methodsWith("withY", PrimitiveType.intType())).isEmpty();
+
+        index.add(method);
+
+        assertThat(index.methodsWith("withY", PrimitiveType.intType())).containsExactly(method);
+        assertThat(index.methods()).hasSize(4);
+    }
+}
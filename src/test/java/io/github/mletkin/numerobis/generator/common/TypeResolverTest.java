@@ -0,0 +1,260 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.generator.common;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.type.Type;
+
+class TypeResolverTest {
+
+    @TempDir
+    Path dir;
+
+    private CountingClassLoader loader = new CountingClassLoader();
+    private TypeResolver resolver = new TypeResolver(loader);
+
+    @Test
+    void singleTypeImportIsResolved() {
+        CompilationUnit cu = unit("import java.util.List;");
+
+        assertThat(resolver.resolve(type("List<String>"), cu)).contains(List.class);
+        assertThat(resolver.isCollection(type("List<String>"), cu)).isTrue();
+    }
+
+    @Test
+    void importWithSameSuffixIsNotUsed() {
+        CompilationUnit cu = unit("import foo.MyList;");
+
+        assertThat(resolver.resolve(type("List<String>"), cu)).isEmpty();
+    }
+
+    @Test
+    void typeImportOnDemandIsResolved() {
+        CompilationUnit cu = unit("import java.util.*;");
+
+        assertThat(resolver.isCollection(type("Set<String>"), cu)).isTrue();
+        assertThat(resolver.isCollection(type("Map<String, String>"), cu)).isFalse();
+    }
+
+    @Test
+    void javaLangTypeIsResolved() {
+        assertThat(resolver.extendsInterface(type("String"), CharSequence.class, unit(""))).isTrue();
+    }
+
+    @Test
+    void fullyQualifiedTypeIsResolved() {
+        assertThat(resolver.resolve(type("java.util.ArrayList<String>"), unit(""))).contains(ArrayList.class);
+        assertThat(resolver.resolve(type("java.util.Map.Entry<String, String>"), unit(""))).contains(Map.Entry.class);
+    }
+
+    @Test
+    void nestedTypeOfImportedTypeIsResolved() {
+        CompilationUnit cu = unit("import java.util.Map;");
+
+        assertThat(resolver.resolve(type("Map.Entry<String, String>"), cu)).contains(Map.Entry.class);
+    }
+
+    @Test
+    void typeInPackageOfUnitIsResolved() {
+        CompilationUnit cu = StaticJavaParser.parse("package " + getClass().getPackage().getName() + "; class Foo {}");
+
+        assertThat(resolver.resolve(type("TypeResolverTest"), cu)).contains(TypeResolverTest.class);
+    }
+
+    @Test
+    void primitiveAndArrayTypesAreNotResolved() {
+        assertThat(resolver.resolve(type("int"), unit(""))).isEmpty();
+        assertThat(resolver.resolve(type("String[]"), unit(""))).isEmpty();
+    }
+
+    @Test
+    void resolvedTypesAreCached() {
+        CompilationUnit cu = unit("import java.util.List;");
+
+        resolver.resolve(type("List<String>"), cu);
+        int loaded = loader.count;
+        resolver.resolve(type("List<Integer>"), unit("import java.util.List;"));
+
+        assertThat(loader.count).isEqualTo(loaded);
+    }
+
+    @Test
+    void unresolvedTypesAreCached() {
+        CompilationUnit cu = unit("import com.example.Missing;");
+
+        assertThat(resolver.resolve(type("Missing"), cu)).isEmpty();
+        int loaded = loader.count;
+        assertThat(resolver.resolve(type("Missing"), cu)).isEmpty();
+
+        assertThat(loader.count).isEqualTo(loaded);
+    }
+
+    @Test
+    void differentImportsAreResolvedSeparately() {
+        assertThat(resolver.resolve(type("List"), unit("import java.util.List;"))).contains(List.class);
+        assertThat(resolver.resolve(type("List"), unit("import java.awt.List;"))).contains(java.awt.List.class);
+    }
+
+    @Test
+    void classesAreNotInitialized() {
+        CompilationUnit cu = unit("import " + Initialized.class.getCanonicalName() + ";");
+
+        assertThat(resolver.resolve(type("Initialized"), cu)).isPresent();
+        assertThat(initialized).isFalse();
+    }
+
+    @Test
+    void collectionDeclaredInTheSourcesIsResolvedWithoutLoading() throws IOException {
+        TypeResolver resolver = new TypeResolver(loader, declaredTypes( //
+                "p/Line.java", "package p; public class Line {}", //
+                "p/Lines.java", "package p; import java.util.ArrayList; public class Lines extends ArrayList<Line> {}"));
+        CompilationUnit cu = StaticJavaParser.parse("package p; class Foo {}");
+
+        assertThat(resolver.isCollection(type("Lines"), cu)).isTrue();
+        assertThat(resolver.elementType(type("Lines"), cu)).contains(type("Line"));
+        assertThat(resolver.declaresDefaultConstructor(type("Lines"), cu)).isTrue();
+        assertThat(loader.names).noneMatch(n -> n.startsWith("p."));
+    }
+
+    @Test
+    void typeParametersAreReplacedAlongTheSupertypes() throws IOException {
+        TypeResolver resolver = new TypeResolver(loader, declaredTypes( //
+                "p/Keyed.java", "package p; public class Keyed<K, V> extends Base<V> {}", //
+                "p/Base.java", "package p; public abstract class Base<E> implements java.util.Collection<E> {}"));
+        CompilationUnit cu = unit("import p.Keyed;");
+
+        assertThat(resolver.elementType(type("Keyed<String, Integer>"), cu)).contains(type("Integer"));
+        assertThat(resolver.elementType(type("Keyed"), cu)).isEmpty();
+        assertThat(resolver.declaresDefaultConstructor(type("p.Base<String>"), cu)).isFalse();
+    }
+
+    @Test
+    void elementTypeIsQualifiedWhenNotVisible() throws IOException {
+        TypeResolver resolver = new TypeResolver(loader, declaredTypes( //
+                "q/Thing.java", "package q; public class Thing {}", //
+                "q/Things.java", "package q; public class Things extends java.util.HashSet<Thing> {"
+                        + " private Things() {} }"));
+        CompilationUnit cu = unit("import q.Things;");
+
+        assertThat(resolver.elementType(type("Things"), cu)).contains(type("q.Thing"));
+        assertThat(resolver.declaresDefaultConstructor(type("Things"), cu)).isFalse();
+    }
+
+    @Test
+    void nestedTypeDeclaredInTheSourcesIsResolved() throws IOException {
+        TypeResolver resolver = new TypeResolver(loader, declaredTypes( //
+                "p/Foo.java", "package p; class Foo { static class Items extends java.util.ArrayList<Foo> {} }"));
+
+        assertThat(resolver.isCollection(type("Items"), StaticJavaParser.parse("package p; class Foo {}"))).isTrue();
+        assertThat(resolver.isCollection(type("Foo.Items"), unit("import p.Foo;"))).isTrue();
+        assertThat(resolver.isCollection(type("p.Foo.Items"), unit(""))).isTrue();
+    }
+
+    @Test
+    void cyclicSupertypesAreNoCollection() throws IOException {
+        TypeResolver resolver = new TypeResolver(loader, declaredTypes( //
+                "p/A.java", "package p; interface A extends B {}", //
+                "p/B.java", "package p; interface B extends A {}"));
+
+        assertThat(resolver.isCollection(type("p.A"), unit(""))).isFalse();
+    }
+
+    @Test
+    void sourceFilesOfFieldTypesAndSupertypesAreCollected() throws IOException {
+        TypeResolver resolver = new TypeResolver(loader, declaredTypes( //
+                "p/Lines.java", "package p; public class Lines extends Base<String> {}", //
+                "p/Base.java", "package p; public class Base<E> extends java.util.ArrayList<E> {}", //
+                "p/Other.java", "package p; public class Other {}"));
+        CompilationUnit cu = StaticJavaParser.parse("package p; class Foo { Lines lines; String name; }");
+
+        assertThat(resolver.sourceFiles(cu)).containsExactlyInAnyOrder( //
+                dir.resolve("p/Lines.java"), dir.resolve("p/Base.java"));
+    }
+
+    @Test
+    void sourcesAreReadWithTheEncoding() throws IOException {
+        Path file = Files.createDirectories(dir.resolve("p")).resolve("Lines.java");
+        Files.write(file, "package p; class Lines extends java.util.ArrayList<String> { int \u00e4; }"
+                .getBytes(StandardCharsets.ISO_8859_1));
+        List<File> sources = singletonList(file.toFile());
+
+        assertThat(new TypeResolver(loader, new DeclaredTypes(singletonList(dir.toString()), sources,
+                StandardCharsets.ISO_8859_1)).isCollection(type("p.Lines"), unit(""))).isTrue();
+        assertThat(new TypeResolver(loader, new DeclaredTypes(singletonList(dir.toString()), sources,
+                StandardCharsets.UTF_8)).isCollection(type("p.Lines"), unit(""))).isFalse();
+    }
+
+    private DeclaredTypes declaredTypes(String... files) throws IOException {
+        List<File> sources = new ArrayList<>();
+        for (int n = 0; n < files.length; n += 2) {
+            Path file = dir.resolve(files[n]);
+            Files.createDirectories(file.getParent());
+            sources.add(Files.write(file, files[n + 1].getBytes()).toFile());
+        }
+        return new DeclaredTypes(singletonList(dir.toString()), sources, StandardCharsets.UTF_8);
+    }
+
+    private static CompilationUnit unit(String imports) {
+        return StaticJavaParser.parse(imports + " class Foo {}");
+    }
+
+    private static Type type(String type) {
+        return StaticJavaParser.parseType(type);
+    }
+
+    static boolean initialized;
+
+    static class Initialized {
+        static {
+            initialized = true;
+        }
+    }
+
+    /**
+     * Class loader that counts the requested classes.
+     */
+    static class CountingClassLoader extends ClassLoader {
+        int count;
+        List<String> names = new ArrayList<>();
+
+        CountingClassLoader() {
+            super(TypeResolverTest.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            count++;
+            names.add(name);
+            return super.loadClass(name, resolve);
+        }
+    }
+}
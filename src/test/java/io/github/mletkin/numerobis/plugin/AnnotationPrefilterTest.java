@@ -0,0 +1,103 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.mletkin.numerobis.annotation.GenerateAccessors;
+import io.github.mletkin.numerobis.annotation.GenerateBuilder;
+
+class AnnotationPrefilterTest {
+
+    private AnnotationPrefilter filter = new AnnotationPrefilter(GenerateBuilder.class, GenerateAccessors.class);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void fileWithoutAnnotationIsNoCandidate() throws IOException {
+        assertThat(filter.isCandidate(write("public class Foo { int x; }"))).isFalse();
+    }
+
+    @Test
+    void simpleNameIsFound() throws IOException {
+        assertThat(filter.isCandidate(write("@GenerateBuilder public class Foo {}"))).isTrue();
+    }
+
+    @Test
+    void qualifiedNameIsFound() throws IOException {
+        assertThat(filter.isCandidate(
+                write("@io.github.mletkin.numerobis.annotation.GenerateAccessors public class Foo {}"))).isTrue();
+    }
+
+    @Test
+    void nameAtEndOfFileIsFound() throws IOException {
+        assertThat(filter.isCandidate(write("// GenerateBuilder"))).isTrue();
+    }
+
+    @Test
+    void unicodeEscapeIsInconclusive() throws IOException {
+        assertThat(filter.isCandidate(write("@\\u0047enerateBuilder public class Foo {}"))).isTrue();
+    }
+
+    @Test
+    void utf16IsInconclusive() throws IOException {
+        Path file = dir.resolve("Foo.java");
+        Files.write(file, "public class Foo {}".getBytes(StandardCharsets.UTF_16));
+        assertThat(filter.isCandidate(file)).isTrue();
+    }
+
+    @Test
+    void largeFileIsScanned() throws IOException {
+        StringBuilder content = new StringBuilder("public class Foo {\n");
+        for (int n = 0; n < 10000; n++) {
+            content.append("    int field").append(n).append(";\n");
+        }
+        assertThat(filter.isCandidate(write(content + "}"))).isFalse();
+        assertThat(filter.isCandidate(write("@GenerateBuilder " + content + "}"))).isTrue();
+    }
+
+    @Test
+    void nameAcrossTheChunkBorderIsFound() throws IOException {
+        for (int offset = -20; offset <= 0; offset++) {
+            StringBuilder content = new StringBuilder();
+            while (content.length() < (1 << 16) + offset) {
+                content.append(' ');
+            }
+            assertThat(filter.isCandidate(write(content + "@GenerateBuilder class Foo {}"))).isTrue();
+            assertThat(filter.isCandidate(write(content + "@GenerateBuild class Foo {}"))).isFalse();
+        }
+    }
+
+    @Test
+    void missingFileIsInconclusive() {
+        assertThat(filter.isCandidate(dir.resolve("Missing.java"))).isTrue();
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = dir.resolve("Foo.java");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.mletkin.numerobis.plugin.Metrics.Member;
+
+class BuildReportTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void valuesAreConvertedToJson() {
+        String json = new BuildReport() //
+                .configuration("text", "a \"b\"\\c\n") //
+                .configuration("list", asList(1, true, null)) //
+                .configuration("enum", BuilderMojo.Location.SEPARATE) //
+                .total("millis", 1.5) //
+                .toJson();
+
+        assertThat(json).isEqualTo("{\n" //
+                + "  \"configuration\": {\n" //
+                + "    \"text\": \"a \\\"b\\\"\\\\c\\n\",\n" //
+                + "    \"list\": [\n" //
+                + "      1,\n" //
+                + "      true,\n" //
+                + "      null\n" //
+                + "    ],\n" //
+                + "    \"enum\": \"SEPARATE\"\n" //
+                + "  },\n" //
+                + "  \"totals\": {\n" //
+                + "    \"millis\": 1.500\n" //
+                + "  },\n" //
+                + "  \"products\": []\n" //
+                + "}\n");
+    }
+
+    @Test
+    void productsAreTakenFromMetrics() throws IOException {
+        Metrics metrics = new Metrics();
+        metrics.start(new File("Skipped.java"));
+        Metrics.Entry entry = metrics.start(new File("Foo.java"));
+        entry.markParsed();
+        entry.markGenerated("Foo", BuilderMojo.Location.SEPARATE, Paths.get("FooBuilder.java"));
+        entry.count(Member.MUTATOR);
+        entry.count(Member.MUTATOR);
+        entry.addBytesWritten(42);
+
+        Path file = dir.resolve("sub/report.json");
+        new BuildReport().products(metrics).write(file);
+        String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+
+        assertThat(json) //
+                .contains("\"filesParsed\": 1,") //
+                .contains("\"bytesWritten\": 42,") //
+                .containsPattern("\"peakHeapBytes\": [1-9][0-9]*") //
+                .contains("\"productType\": \"Foo\"") //
+                .contains("\"builderLocation\": \"SEPARATE\"") //
+                .contains("\"mutators\": 2,") //
+                .contains("\"adders\": 0,") //
+                .doesNotContain("Skipped.java");
+    }
+}
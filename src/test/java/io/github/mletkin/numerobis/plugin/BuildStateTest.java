@@ -0,0 +1,178 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BuildStateTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void unknownFileIsNotUpToDate() throws IOException {
+        assertThat(BuildState.empty(settings(BuilderMojo.Creation.FACTORY)).isUpToDate(write("Foo", "x")))
+                .isFalse();
+    }
+
+    @Test
+    void recordedFileIsUpToDateAfterReload() throws IOException {
+        File foo = write("Foo", "x");
+        BuildState state = BuildState.empty(settings(BuilderMojo.Creation.FACTORY));
+        state.record(foo, Collections.emptyList());
+        state.save(stateFile());
+
+        assertThat(BuildState.load(stateFile(), settings(BuilderMojo.Creation.FACTORY)).isUpToDate(foo)).isTrue();
+    }
+
+    @Test
+    void changedContentIsDetected() throws IOException {
+        File foo = write("Foo", "x");
+        BuildState state = BuildState.empty(settings(BuilderMojo.Creation.FACTORY));
+        state.record(foo, Collections.emptyList());
+
+        write("Foo", "y");
+        foo.setLastModified(foo.lastModified() + 2000);
+
+        assertThat(state.isUpToDate(foo)).isFalse();
+    }
+
+    @Test
+    void touchedFileWithSameContentIsUpToDate() throws IOException {
+        File foo = write("Foo", "x");
+        BuildState state = BuildState.empty(settings(BuilderMojo.Creation.FACTORY));
+        state.record(foo, Collections.emptyList());
+
+        foo.setLastModified(foo.lastModified() + 2000);
+
+        assertThat(state.isUpToDate(foo)).isTrue();
+    }
+
+    @Test
+    void configurationChangeInvalidatesState() throws IOException {
+        File foo = write("Foo", "x");
+        BuildState state = BuildState.empty(settings(BuilderMojo.Creation.FACTORY));
+        state.record(foo, Collections.emptyList());
+        state.save(stateFile());
+
+        assertThat(BuildState.load(stateFile(), settings(BuilderMojo.Creation.CONSTRUCTOR)).isUpToDate(foo))
+                .isFalse();
+    }
+
+    @Test
+    void environmentChangeInvalidatesState() throws IOException {
+        File foo = write("Foo", "x");
+        File jar = write("lib", "jar");
+        MojoSettings settings = settings(BuilderMojo.Creation.FACTORY);
+        BuildState state = BuildState.empty(settings, BuildState.environment("1.0", Arrays.asList(jar.toString())));
+        state.record(foo, Collections.emptyList());
+        state.save(stateFile());
+
+        assertThat(BuildState.load(stateFile(), settings, BuildState.environment("1.0", Arrays.asList(jar.toString())))
+                .isUpToDate(foo)).isTrue();
+        assertThat(BuildState.load(stateFile(), settings, BuildState.environment("1.1", Arrays.asList(jar.toString())))
+                .isUpToDate(foo)).isFalse();
+
+        write("lib", "changed jar");
+        assertThat(BuildState.load(stateFile(), settings, BuildState.environment("1.0", Arrays.asList(jar.toString())))
+                .isUpToDate(foo)).isFalse();
+    }
+
+    @Test
+    void missingOutputInvalidatesFile() throws IOException {
+        File foo = write("Foo", "x");
+        File builder = write("FooBuilder", "y");
+        BuildState state = BuildState.empty(settings(BuilderMojo.Creation.FACTORY));
+        state.record(foo, Arrays.asList(builder.toPath(), foo.toPath()));
+
+        Files.delete(builder.toPath());
+
+        assertThat(state.isUpToDate(foo)).isFalse();
+    }
+
+    @Test
+    void deletedFileReturnsOutputs() throws IOException {
+        File foo = write("Foo", "x");
+        File bar = write("Bar", "x");
+        File builder = write("FooBuilder", "y");
+        BuildState state = BuildState.empty(settings(BuilderMojo.Creation.FACTORY));
+        state.record(foo, Arrays.asList(builder.toPath(), foo.toPath()));
+        state.record(bar, Collections.emptyList());
+
+        assertThat(state.removeDeleted(Arrays.asList(bar))).containsExactly(builder.toPath().toAbsolutePath());
+        assertThat(state.isUpToDate(foo)).isFalse();
+        assertThat(state.isUpToDate(bar)).isTrue();
+    }
+
+    @Test
+    void changedDependencyInvalidatesFile() throws IOException {
+        File foo = write("Foo", "x");
+        File lines = write("Lines", "y");
+        BuildState state = BuildState.empty(settings(BuilderMojo.Creation.FACTORY));
+        state.record(foo, Collections.emptyList(), Arrays.asList(lines.toPath()));
+        state.save(stateFile());
+        BuildState loaded = BuildState.load(stateFile(), settings(BuilderMojo.Creation.FACTORY));
+        assertThat(loaded.isUpToDate(foo)).isTrue();
+
+        write("Lines", "changed");
+
+        assertThat(loaded.isUpToDate(foo)).isFalse();
+        assertThat(loaded.dependents(Arrays.asList(lines.toPath()))).containsExactly(foo.getAbsoluteFile());
+    }
+
+    @Test
+    void addedSourceFileInvalidatesAllFiles() throws IOException {
+        File foo = write("Foo", "x");
+        File builder = write("FooBuilder", "y");
+        BuildState state = BuildState.empty(settings(BuilderMojo.Creation.FACTORY));
+        state.compareSources(Arrays.asList(foo));
+        state.record(foo, Arrays.asList(builder.toPath()));
+
+        state.compareSources(Arrays.asList(foo, builder));
+        assertThat(state.isUpToDate(foo)).isTrue();
+
+        state.compareSources(Arrays.asList(foo, builder, write("Bar", "z")));
+        assertThat(state.isUpToDate(foo)).isFalse();
+    }
+
+    private Path stateFile() {
+        return dir.resolve("numerobis").resolve("state.bin");
+    }
+
+    private MojoSettings settings(BuilderMojo.Creation creation) {
+        return new MojoSettings.Builder() //
+                .withBuilderCreation(creation) //
+                .withBuilderLocation(BuilderMojo.Location.SEPARATE) //
+                .withNamingSettings(Naming.DEFAULT) //
+                .build();
+    }
+
+    private File write(String name, String content) throws IOException {
+        Path file = dir.resolve(name + ".java");
+        Files.write(file, content.getBytes());
+        return file.toFile();
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BuilderMojoTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void builderOfDeletedProductIsRemoved() throws Exception {
+        Path src = Files.createDirectories(dir.resolve("src"));
+        Path foo = write(src.resolve("Foo.java"), "@GenerateBuilder public class Foo { int x; }");
+        Path builder = src.resolve("FooBuilder.java");
+        mojo(src).execute();
+        assertThat(builder).exists();
+
+        Files.delete(foo);
+        mojo(src).execute();
+
+        assertThat(builder).doesNotExist();
+    }
+
+    @Test
+    void changedFieldTypeIsRegenerated() throws Exception {
+        Path src = Files.createDirectories(dir.resolve("src"));
+        write(src.resolve("Foo.java"), "@GenerateBuilder public class Foo { @GenerateAdder Lines lines; }");
+        Path lines = write(src.resolve("Lines.java"), "public class Lines { }");
+        Path builder = src.resolve("FooBuilder.java");
+        mojo(src).execute();
+        assertThat(new String(Files.readAllBytes(builder))).doesNotContain("addLine(");
+
+        write(lines, "import java.util.ArrayList; public class Lines extends ArrayList<String> { }");
+        mojo(src).execute();
+
+        assertThat(new String(Files.readAllBytes(builder))).contains("addLine(");
+    }
+
+    @Test
+    void reportContainsSourceEncoding() throws Exception {
+        Path src = Files.createDirectories(dir.resolve("src"));
+        write(src.resolve("Foo.java"), "@GenerateBuilder public class Foo { int x; }");
+        BuilderMojo mojo = mojo(src);
+        set(mojo, "sourceEncoding", "ISO-8859-1");
+        mojo.execute();
+
+        assertThat(new String(Files.readAllBytes(dir.resolve("target/report.json")))) //
+                .contains("\"sourceEncoding\": \"ISO-8859-1\"");
+    }
+
+    @Test
+    void reportContainsPreserveLayout() throws Exception {
+        Path src = Files.createDirectories(dir.resolve("src"));
+        write(src.resolve("Foo.java"), "@GenerateBuilder public class Foo { int x; }");
+        BuilderMojo mojo = mojo(src);
+        set(mojo, "preserveLayout", true);
+        mojo.execute();
+
+        assertThat(new String(Files.readAllBytes(dir.resolve("target/report.json")))) //
+                .contains("\"preserveLayout\": true");
+    }
+
+    @Test
+    void classLoaderIsClosedAfterTheRun() throws Exception {
+        Path src = Files.createDirectories(dir.resolve("src"));
+        write(src.resolve("Foo.java"), "@GenerateBuilder public class Foo { int x; }");
+        AtomicBoolean closed = new AtomicBoolean();
+        BuilderMojo mojo = new BuilderMojo() {
+            @Override
+            URLClassLoader compileClassLoader() {
+                return new URLClassLoader(new URL[0]) {
+                    @Override
+                    public void close() {
+                        closed.set(true);
+                    }
+                };
+            }
+        };
+
+        configure(mojo, src, dir.resolve("target")).execute();
+
+        assertThat(closed).isTrue();
+    }
+
+    private BuilderMojo mojo(Path src) throws ReflectiveOperationException {
+        return configure(new BuilderMojo(), src, dir.resolve("target"));
+    }
+
+    /**
+     * Configures a mojo like the maven defaults, with separate builders.
+     */
+    static <T extends BuilderMojo> T configure(T mojo, Path src, Path target) throws ReflectiveOperationException {
+        set(mojo, "compileSourceRoots", singletonList(src.toString()));
+        set(mojo, "compileClasspathElements", emptyList());
+        set(mojo, "targetDirectory", " ");
+        set(mojo, "builderCreation", BuilderMojo.Creation.FACTORY);
+        set(mojo, "builderLocation", BuilderMojo.Location.SEPARATE);
+        set(mojo, "parallelism", 1);
+        set(mojo, "incremental", true);
+        set(mojo, "stateFile", target.resolve("state.bin").toFile());
+        set(mojo, "reportFile", target.resolve("report.json").toFile());
+        return mojo;
+    }
+
+    private static void set(BuilderMojo mojo, String name, Object value) throws ReflectiveOperationException {
+        Field field = BuilderMojo.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(mojo, value);
+    }
+
+    static Path write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        return Files.write(file, content.getBytes());
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.mletkin.numerobis.annotation.GenerateBuilder;
+
+class BuilderProcessorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void builderIsGeneratedDuringCompilation() throws Exception {
+        Path source = write("foo/Foo.java", "package foo;" //
+                + "import io.github.mletkin.numerobis.annotation.GenerateBuilder;" //
+                + "@GenerateBuilder public class Foo { int x; }");
+
+        assertThat(compile(source, "-Anumerobis.builderCreation=CONSTRUCTOR")).isTrue();
+
+        String builder = new String(Files.readAllBytes(dir.resolve("generated/foo/FooBuilder.java")));
+        assertThat(builder).contains("package foo;", "public FooBuilder()", "public FooBuilder withX(int x)");
+        assertThat(dir.resolve("classes/foo/FooBuilder.class")).exists();
+    }
+
+    @Test
+    void namingOptionsAreApplied() throws Exception {
+        Path source = write("Bar.java", "@io.github.mletkin.numerobis.annotation.GenerateBuilder " //
+                + "public class Bar { int x; }");
+
+        assertThat(compile(source, "-Anumerobis.builderClassPostfix=Maker", "-Anumerobis.mutatorPrefix=set"))
+                .isTrue();
+
+        String builder = new String(Files.readAllBytes(dir.resolve("generated/BarMaker.java")));
+        assertThat(builder).contains("public static BarMaker of()", "public BarMaker setX(int x)");
+    }
+
+    @Test
+    void collectionDeclaredInTheSourcesIsDetected() throws Exception {
+        Path lines = write("foo/Lines.java", "package foo; public class Lines extends java.util.ArrayList<String> {}");
+        Path source = write("foo/Foo.java", "package foo;" //
+                + "import io.github.mletkin.numerobis.annotation.*;" //
+                + "@GenerateBuilder public class Foo {" //
+                + " @GenerateAdder(variants = GenerateAdder.Variant.ITEM) Lines lines; }");
+
+        assertThat(compile(Arrays.asList(source, lines))).isTrue();
+
+        String builder = new String(Files.readAllBytes(dir.resolve("generated/foo/FooBuilder.java")));
+        assertThat(builder).contains("public FooBuilder addLine(String item)");
+    }
+
+    private boolean compile(Path source, String... options) throws IOException, URISyntaxException {
+        return compile(Collections.singletonList(source), options);
+    }
+
+    private boolean compile(List<Path> sources, String... options) throws IOException, URISyntaxException {
+        Files.createDirectories(dir.resolve("generated"));
+        Files.createDirectories(dir.resolve("classes"));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(null, null, null)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, null, //
+                    options(options), null, files.getJavaFileObjectsFromPaths(sources));
+            task.setProcessors(Collections.singletonList(new BuilderProcessor()));
+            return task.call();
+        }
+    }
+
+    private List<String> options(String... options) throws URISyntaxException {
+        List<String> result = new ArrayList<>(Arrays.asList(options));
+        result.addAll(Arrays.asList( //
+                "-classpath", annotationLocation(), //
+                "-s", dir.resolve("generated").toString(), //
+                "-d", dir.resolve("classes").toString()));
+        return result;
+    }
+
+    private static String annotationLocation() throws URISyntaxException {
+        return Paths.get(GenerateBuilder.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                .toString();
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = dir.resolve("src").resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes());
+        return file;
+    }
+}
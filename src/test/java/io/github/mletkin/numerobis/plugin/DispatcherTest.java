@@ -0,0 +1,78 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DispatcherTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void processesAllFilesInParallel() throws Exception {
+        File foo = product("Foo");
+        File bar = product("Bar");
+
+        dispatcher(4).process(Arrays.asList(foo, bar));
+
+        assertThat(dir.resolve("FooBuilder.java")).exists();
+        assertThat(dir.resolve("BarBuilder.java")).exists();
+    }
+
+    @Test
+    void failureDoesNotHideOtherResults() throws Exception {
+        File broken = write("Broken", "@GenerateBuilder public class Broken {");
+        File foo = product("Foo");
+
+        assertThatThrownBy(() -> dispatcher(2).process(Arrays.asList(broken, foo))) //
+                .isInstanceOf(MojoExecutionException.class) //
+                .hasMessage("1 of 2 files could not be processed");
+
+        assertThat(dir.resolve("FooBuilder.java")).exists();
+    }
+
+    private Dispatcher dispatcher(int parallelism) {
+        MojoSettings settings = new MojoSettings.Builder() //
+                .withBuilderCreation(BuilderMojo.Creation.FACTORY) //
+                .withBuilderLocation(BuilderMojo.Location.SEPARATE) //
+                .withNamingSettings(Naming.DEFAULT) //
+                .build();
+        return new Dispatcher(new Processor(settings)::process, parallelism, new SystemStreamLog());
+    }
+
+    private File product(String name) throws IOException {
+        return write(name, "@GenerateBuilder public class " + name + " { int x; }");
+    }
+
+    private File write(String name, String content) throws IOException {
+        Path file = dir.resolve(name + ".java");
+        Files.write(file, content.getBytes());
+        return file.toFile();
+    }
+}
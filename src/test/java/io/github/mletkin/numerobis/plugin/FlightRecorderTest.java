@@ -0,0 +1,84 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.mletkin.numerobis.plugin.FlightRecorder.Type;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class FlightRecorderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void withoutRecordingNoEventIsCreated() {
+        assertThat(FlightRecorder.start(Type.FILE_PARSED)).isSameAs(FlightRecorder.noSpan());
+    }
+
+    @Test
+    void processingEmitsEvents() throws IOException {
+        Path product = dir.resolve("Foo.java");
+        Files.write(product, "@GenerateBuilder @GenerateAccessors public class Foo { int x; }".getBytes());
+        Processor processor = new Processor(new MojoSettings.Builder() //
+                .withBuilderCreation(BuilderMojo.Creation.FACTORY) //
+                .withBuilderLocation(BuilderMojo.Location.SEPARATE) //
+                .withNamingSettings(Naming.DEFAULT) //
+                .build());
+
+        Path dump = dir.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : new String[] { "FileScanned", "FileParsed", "BuilderGenerated",
+                    "AccessorsGenerated", "UnitSorted", "UnitWritten" }) {
+                recording.enable("io.github.mletkin.numerobis." + name).withoutThreshold();
+            }
+            recording.start();
+            processor.process(product.toFile());
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        assertThat(events.stream().map(e -> e.getEventType().getName()).distinct().collect(toList())) //
+                .containsExactlyInAnyOrder( //
+                        "io.github.mletkin.numerobis.FileScanned", //
+                        "io.github.mletkin.numerobis.FileParsed", //
+                        "io.github.mletkin.numerobis.BuilderGenerated", //
+                        "io.github.mletkin.numerobis.AccessorsGenerated", //
+                        "io.github.mletkin.numerobis.UnitSorted", //
+                        "io.github.mletkin.numerobis.UnitWritten");
+        assertThat(events).filteredOn(e -> e.getEventType().getName().endsWith("BuilderGenerated")) //
+                .hasSize(1) //
+                .allSatisfy(e -> {
+                    assertThat(e.getString("productType")).isEqualTo("Foo");
+                    assertThat(e.getString("file")).isEqualTo(product.toString());
+                });
+        assertThat(events).filteredOn(e -> e.getEventType().getName().endsWith("UnitWritten")) //
+                .allMatch(e -> e.getLong("bytes") > 0);
+    }
+}
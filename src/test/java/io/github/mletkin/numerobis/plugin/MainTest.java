@@ -0,0 +1,116 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MainTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void sourceDirectoryIsProcessed() throws IOException {
+        product("Foo");
+
+        assertThat(run("", "--source", dir.toString(), "--location", "SEPARATE")).isEqualTo(Main.OK);
+        assertThat(dir.resolve("FooBuilder.java")).exists();
+    }
+
+    @Test
+    void filesAreReadFromStdin() throws IOException {
+        Path foo = product("Foo");
+
+        assertThat(run(foo + "\n", "--stdin", "--location", "SEPARATE", "--builder-postfix", "Maker"))
+                .isEqualTo(Main.OK);
+        assertThat(dir.resolve("FooMaker.java")).exists();
+    }
+
+    @Test
+    void namingIsApplied() throws IOException {
+        Path foo = product("Foo");
+
+        assertThat(run("", foo.toString(), "--mutator-prefix", "set")).isEqualTo(Main.OK);
+        assertThat(new String(Files.readAllBytes(foo))).contains("public Builder setX(int x)");
+    }
+
+    @Test
+    void debugOutputNeedsVerboseOption() throws IOException {
+        Path foo = product("Foo");
+
+        assertThat(Main.log(new String[] { foo.toString() }).isDebugEnabled()).isFalse();
+        assertThat(Main.log(new String[] { "--verbose", foo.toString() }).isDebugEnabled()).isTrue();
+        assertThat(run("", "--verbose", foo.toString())).isEqualTo(Main.OK);
+    }
+
+    @Test
+    void fileInSourceDirectoryIsProcessedOnce() throws IOException {
+        Path foo = product("Foo");
+        List<String> processed = new ArrayList<>();
+        SystemStreamLog log = new SystemStreamLog() {
+            @Override
+            public boolean isDebugEnabled() {
+                return true;
+            }
+
+            @Override
+            public void debug(CharSequence content) {
+                processed.add(content.toString());
+            }
+        };
+
+        String[] args = { "--source", dir.toString(), dir.resolve("./Foo.java").toString(), foo.toString() };
+        assertThat(Main.run(args, new ByteArrayInputStream(new byte[0]), log)).isEqualTo(Main.OK);
+
+        assertThat(processed).containsExactly(foo.toAbsolutePath().toString());
+    }
+
+    @Test
+    void unknownOptionIsRejected() {
+        assertThat(run("", "--foo")).isEqualTo(Main.USAGE);
+    }
+
+    @Test
+    void invalidValueIsRejected() {
+        assertThat(run("", "--location", "NOWHERE")).isEqualTo(Main.USAGE);
+    }
+
+    @Test
+    void missingValueIsRejected() {
+        assertThat(run("", "--target")).isEqualTo(Main.USAGE);
+    }
+
+    private int run(String stdin, String... args) {
+        return Main.run(args, new ByteArrayInputStream(stdin.getBytes()), new SystemStreamLog());
+    }
+
+    private Path product(String name) throws IOException {
+        Path file = dir.resolve(name + ".java");
+        Files.write(file, ("@GenerateBuilder public class " + name + " { int x; }").getBytes());
+        return file;
+    }
+}
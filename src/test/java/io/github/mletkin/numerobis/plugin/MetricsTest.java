@@ -0,0 +1,127 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.Test;
+
+import io.github.mletkin.numerobis.plugin.Metrics.Phase;
+
+class MetricsTest {
+
+    @Test
+    void percentileUsesNearestRank() {
+        long[] values = { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 };
+
+        assertThat(Metrics.percentile(values, 50)).isEqualTo(5);
+        assertThat(Metrics.percentile(values, 95)).isEqualTo(10);
+        assertThat(Metrics.percentile(values, 100)).isEqualTo(10);
+        assertThat(Metrics.percentile(new long[0], 50)).isEqualTo(0);
+    }
+
+    @Test
+    void phasesAreAccumulated() {
+        Metrics.Entry entry = new Metrics().start(new File("Foo.java"));
+        entry.time(Phase.PARSE, () -> sleep(2));
+        entry.time(Phase.PARSE, () -> sleep(2));
+
+        assertThat(entry.nanos(Phase.PARSE)).isGreaterThanOrEqualTo(4_000_000);
+        assertThat(entry.nanos(Phase.SORT)).isZero();
+        assertThat(entry.total()).isEqualTo(entry.nanos(Phase.PARSE));
+    }
+
+    @Test
+    void peakOfHeldUnitsIsTracked() {
+        Metrics metrics = new Metrics();
+        metrics.unitsHeld(2);
+        metrics.unitsHeld(1);
+        metrics.unitsHeld(-3);
+        metrics.unitsHeld(1);
+
+        assertThat(metrics.peakUnits()).isEqualTo(3);
+    }
+
+    @Test
+    void peakHeapKeepsTheMaximumOfTheSamples() {
+        Metrics metrics = new Metrics();
+        metrics.sampleHeap();
+        long first = metrics.peakHeapBytes();
+
+        assertThat(first).isPositive();
+        assertThat(metrics.peakHeapBytes()).isGreaterThanOrEqualTo(first);
+    }
+
+    @Test
+    void summaryListsHeaviestFiles() {
+        Metrics metrics = new Metrics();
+        metrics.start(new File("Light.java")).recordAllocatedBytes(1024);
+        Metrics.Entry heavy = metrics.start(new File("Heavy.java"));
+        heavy.recordAllocatedBytes(3 * 1024 * 1024);
+        heavy.addAstNodes(120);
+
+        CapturingLog log = new CapturingLog();
+        metrics.log(log, 1, 0);
+
+        assertThat(log.info).contains("  Heavy.java 3.0 MB allocated, 120 AST nodes");
+        assertThat(log.info).noneMatch(s -> s.startsWith("  Light.java") && s.contains("allocated"));
+        assertThat(log.info).contains("peak live compilation units: 0");
+        assertThat(log.info).anyMatch(s -> s.startsWith("peak heap usage: "));
+    }
+
+    @Test
+    void summaryListsSlowestFilesAndWarnsAboveThreshold() {
+        Metrics metrics = new Metrics();
+        metrics.start(new File("Fast.java")).add(Phase.PARSE, 1_000_000);
+        metrics.start(new File("Slow.java")).add(Phase.GENERATE, 5_000_000);
+
+        CapturingLog log = new CapturingLog();
+        metrics.log(log, 1, 3);
+
+        assertThat(log.info).anyMatch(s -> s.startsWith("2 files processed"));
+        assertThat(log.info).anyMatch(s -> s.startsWith("  Slow.java"));
+        assertThat(log.info).noneMatch(s -> s.startsWith("  Fast.java"));
+        assertThat(log.warn).hasSize(1).allMatch(s -> s.contains("Slow.java"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class CapturingLog extends SystemStreamLog {
+        List<String> info = new ArrayList<>();
+        List<String> warn = new ArrayList<>();
+
+        @Override
+        public void info(CharSequence content) {
+            info.add(content.toString());
+        }
+
+        @Override
+        public void warn(CharSequence content) {
+            warn.add(content.toString());
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.mletkin.numerobis.annotation.GenerateListMutator;
+import io.github.mletkin.numerobis.common.ThreadAllocation;
+import io.github.mletkin.numerobis.generator.common.DeclaredTypes;
+import io.github.mletkin.numerobis.generator.common.TypeResolver;
+
+class ProcessorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void generatedFilesAreWritten() throws IOException {
+        Processor processor = processor();
+        File foo = product("Foo");
+
+        assertThat(processor.process(foo)).containsExactlyInAnyOrder(foo.toPath(), dir.resolve("FooBuilder.java"));
+        assertThat(processor.writtenFiles()).isEqualTo(2);
+        assertThat(processor.unchangedFiles()).isEqualTo(0);
+    }
+
+    @Test
+    void unchangedFilesAreNotWritten() throws IOException {
+        File foo = product("Foo");
+        processor().process(foo);
+
+        Path builder = dir.resolve("FooBuilder.java");
+        FileTime past = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(builder, past);
+        Files.setLastModifiedTime(foo.toPath(), past);
+
+        Processor processor = processor();
+        assertThat(processor.process(foo)).containsExactlyInAnyOrder(foo.toPath(), builder);
+        assertThat(processor.writtenFiles()).isEqualTo(0);
+        assertThat(processor.unchangedFiles()).isEqualTo(2);
+        assertThat(Files.getLastModifiedTime(builder)).isEqualTo(past);
+        assertThat(Files.getLastModifiedTime(foo.toPath())).isEqualTo(past);
+    }
+
+    @Test
+    void filesAreReadAndWrittenWithTheSourceEncoding() throws IOException {
+        Path foo = dir.resolve("Foo.java");
+        Files.write(foo, "@GenerateBuilder public class Foo { String x = \"\u00e4\u00f6\u00fc\"; }"
+                .getBytes(StandardCharsets.ISO_8859_1));
+
+        Processor processor = new Processor(new MojoSettings.Builder() //
+                .withBuilderCreation(BuilderMojo.Creation.FACTORY) //
+                .withBuilderLocation(BuilderMojo.Location.EMBEDDED) //
+                .withNamingSettings(Naming.DEFAULT) //
+                .withSourceEncoding(StandardCharsets.ISO_8859_1) //
+                .build());
+        processor.process(foo.toFile());
+
+        String product = new String(Files.readAllBytes(foo), StandardCharsets.ISO_8859_1);
+        assertThat(product).contains("String x = \"\u00e4\u00f6\u00fc\";", "public static class Builder");
+        assertThat(processor.writtenFiles()).isEqualTo(1);
+    }
+
+    @Test
+    void patchedFileKeepsItsLayout() throws IOException {
+        Path foo = write("Foo.java", "@GenerateAccessors\nclass Foo {\n\tint  x;\n}\n");
+        Processor processor = new Processor(new MojoSettings.Builder() //
+                .withBuilderCreation(BuilderMojo.Creation.FACTORY) //
+                .withBuilderLocation(BuilderMojo.Location.EMBEDDED) //
+                .withNamingSettings(Naming.DEFAULT) //
+                .withPreserveLayout(true) //
+                .build());
+        processor.process(foo.toFile());
+
+        String product = new String(Files.readAllBytes(foo));
+        assertThat(product).startsWith("@GenerateAccessors\nclass Foo {\n\tint  x;\n\n\tpublic int x() {\n");
+        assertThat(processor.writtenFiles()).isEqualTo(1);
+
+        FileTime past = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(foo, past);
+        processor.process(foo.toFile());
+
+        assertThat(processor.writtenFiles()).isEqualTo(1);
+        assertThat(processor.unchangedFiles()).isEqualTo(1);
+        assertThat(Files.getLastModifiedTime(foo)).isEqualTo(past);
+        assertThat(new String(Files.readAllBytes(foo))).isEqualTo(product);
+    }
+
+    @Test
+    void fileWithoutAnnotationIsIgnored() throws IOException {
+        Path file = dir.resolve("Foo.java");
+        Files.write(file, "public class Foo { int x; }".getBytes());
+
+        Processor processor = processor();
+        assertThat(processor.process(file.toFile())).isEmpty();
+        assertThat(processor.writtenFiles()).isEqualTo(0);
+    }
+
+    @Test
+    void phasesAreMeasured() throws IOException {
+        Processor processor = processor();
+        processor.process(product("Foo"));
+
+        assertThat(processor.metrics().entries()).hasSize(1).allSatisfy(e -> {
+            assertThat(e.generated()).isTrue();
+            assertThat(e.nanos(Metrics.Phase.PARSE)).isPositive();
+            assertThat(e.nanos(Metrics.Phase.WRITE)).isPositive();
+        });
+    }
+
+    @Test
+    void generatedMembersAreCounted() throws IOException {
+        Processor processor = processor();
+        File foo = product("Foo");
+        processor.process(foo);
+
+        Metrics.Entry entry = processor.metrics().entries().get(0);
+        assertThat(entry.productType()).isEqualTo("Foo");
+        assertThat(entry.location()).isEqualTo(BuilderMojo.Location.SEPARATE);
+        assertThat(entry.builderPath()).isEqualTo(dir.resolve("FooBuilder.java"));
+        assertThat(entry.members(Metrics.Member.CONSTRUCTOR)).isEqualTo(1);
+        assertThat(entry.members(Metrics.Member.FACTORY_METHOD)).isEqualTo(1);
+        assertThat(entry.members(Metrics.Member.MUTATOR)).isEqualTo(1);
+        assertThat(entry.members(Metrics.Member.ADDER)).isZero();
+        assertThat(entry.bytesWritten()).isEqualTo(Files.size(dir.resolve("FooBuilder.java")) + foo.length());
+    }
+
+    @Test
+    void memoryIsMeasured() throws IOException {
+        Processor processor = processor();
+        processor.process(product("Foo"));
+
+        Metrics.Entry entry = processor.metrics().entries().get(0);
+        assertThat(entry.astNodes()).isPositive();
+        assertThat(processor.metrics().peakUnits()).isEqualTo(2);
+        if (ThreadAllocation.supported()) {
+            assertThat(entry.allocatedBytes()).isPositive();
+        }
+    }
+
+    @Test
+    void collectionTypesDeclaredInTheProjectAreRecognized() throws IOException {
+        File line = write("p/Line.java", "package p; public class Line {}").toFile();
+        File lines = write("p/Lines.java", "package p; public class Lines extends java.util.ArrayList<Line> {}").toFile();
+        File foo = write("p/Foo.java", "package p; @GenerateBuilder public class Foo { Lines lines; }").toFile();
+
+        Processor processor = new Processor(new MojoSettings.Builder() //
+                .withBuilderCreation(BuilderMojo.Creation.FACTORY) //
+                .withBuilderLocation(BuilderMojo.Location.SEPARATE) //
+                .withListMutatorVariants(new GenerateListMutator.Variant[] { GenerateListMutator.Variant.VARARG }) //
+                .withNamingSettings(Naming.DEFAULT) //
+                .build()) //
+                .withTypeResolver(new TypeResolver(getClass().getClassLoader(),
+                        new DeclaredTypes(singletonList(dir.toString()), asList(line, lines, foo),
+                                StandardCharsets.UTF_8)));
+        processor.process(foo);
+
+        String builder = new String(Files.readAllBytes(dir.resolve("p/FooBuilder.java")));
+        assertThat(builder).contains("public FooBuilder addLine(Line item)",
+                "public FooBuilder withLines(Line... items)", "Collectors.toCollection(Lines::new)");
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = dir.resolve(name);
+        Files.createDirectories(file.getParent());
+        return Files.write(file, content.getBytes());
+    }
+
+    private Processor processor() {
+        return new Processor(new MojoSettings.Builder() //
+                .withBuilderCreation(BuilderMojo.Creation.FACTORY) //
+                .withBuilderLocation(BuilderMojo.Location.SEPARATE) //
+                .withNamingSettings(Naming.DEFAULT) //
+                .build());
+    }
+
+    private File product(String name) throws IOException {
+        Path file = dir.resolve(name + ".java");
+        Files.write(file, ("@GenerateBuilder public class " + name + " { int x; }").getBytes());
+        return file.toFile();
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SourceFilesTest {
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void createFiles() throws IOException {
+        file("Foo.java");
+        file("Foo.txt");
+        file("a/Bar.java");
+        file("a/Bar.properties");
+        file("a/generated/Gen.java");
+        file("generated/Top.java");
+        file(".git/Hidden.java");
+        file("b/.hidden/Hidden.java");
+    }
+
+    @Test
+    void defaultSelectsAllVisibleJavaFiles() {
+        assertThat(collect(null, null)).containsExactlyInAnyOrder( //
+                "Foo.java", "a/Bar.java", "a/generated/Gen.java", "generated/Top.java");
+    }
+
+    @Test
+    void excludedDirectoriesAreSkipped() {
+        assertThat(collect(null, singletonList("**/generated/**"))).containsExactlyInAnyOrder( //
+                "Foo.java", "a/Bar.java");
+    }
+
+    @Test
+    void excludedFilesAreSkipped() {
+        assertThat(collect(null, singletonList("**/Bar.java"))).containsExactlyInAnyOrder( //
+                "Foo.java", "a/generated/Gen.java", "generated/Top.java");
+    }
+
+    @Test
+    void includesRestrictTheSelection() {
+        assertThat(collect(asList("a/**", "generated/*.java"), null)).containsExactlyInAnyOrder( //
+                "a/Bar.java", "a/generated/Gen.java", "generated/Top.java");
+    }
+
+    @Test
+    void includesSelectOnlyJavaFiles() {
+        assertThat(collect(asList("a/**", "*.txt"), null)).containsExactlyInAnyOrder( //
+                "a/Bar.java", "a/generated/Gen.java");
+        assertThat(new SourceFiles(singletonList("**"), null).accepts(singletonList(dir.toString()),
+                dir.resolve("a/Bar.properties"))).isFalse();
+    }
+
+    @Test
+    void skippedDirectoriesAreNotListed() {
+        SourceFiles files = new SourceFiles(null, singletonList("generated"));
+        assertThat(files.directories(dir.toString())).containsExactlyInAnyOrder( //
+                dir, dir.resolve("a"), dir.resolve("a/generated"), dir.resolve("b"));
+    }
+
+    @Test
+    void acceptsChecksPatternsAndDirectories() {
+        SourceFiles files = new SourceFiles(null, singletonList("**/generated/**"));
+        List<String> roots = singletonList(dir.toString());
+
+        assertThat(files.accepts(roots, dir.resolve("a/Bar.java"))).isTrue();
+        assertThat(files.accepts(roots, dir.resolve("a/generated/Gen.java"))).isFalse();
+        assertThat(files.accepts(roots, dir.resolve(".git/Hidden.java"))).isFalse();
+        assertThat(files.accepts(roots, dir.resolve("Foo.txt"))).isFalse();
+        assertThat(files.accepts(roots, dir.getParent().resolve("Other.java"))).isFalse();
+    }
+
+    private String[] collect(List<String> includes, List<String> excludes) {
+        return new SourceFiles(includes, excludes).collect(singletonList(dir.toString())).stream() //
+                .map(File::toPath) //
+                .map(dir::relativize) //
+                .map(p -> p.toString().replace(File.separatorChar, '/')) //
+                .toArray(String[]::new);
+    }
+
+    private void file(String name) throws IOException {
+        Path file = dir.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[0]);
+    }
+}
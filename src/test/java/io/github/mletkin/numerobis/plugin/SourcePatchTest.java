@@ -0,0 +1,127 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+
+import io.github.mletkin.numerobis.generator.Facade;
+import io.github.mletkin.numerobis.generator.Sorter;
+
+class SourcePatchTest {
+
+    private Facade facade = new Facade(false);
+    private Sorter sorter = new Sorter(Naming.DEFAULT);
+
+    @Test
+    void unchangedUnitIsNotChanged() {
+        String source = "import io.github.mletkin.numerobis.annotation.*;\n\n" //
+                + "@GenerateAccessors\n" //
+                + "public class Foo {\n" //
+                + "    int x;\n\n" //
+                + "    public int x() {\n" //
+                + "        return x;\n" //
+                + "    }\n" //
+                + "}\n";
+        CompilationUnit unit = StaticJavaParser.parse(source);
+        SourcePatch patch = new SourcePatch(unit, source);
+
+        facade.withAccessors(unit, "Foo");
+
+        assertThat(patch.prepare(sorter)).isTrue();
+        assertThat(patch.isChanged()).isFalse();
+        assertThat(patch.print()).isEqualTo(source);
+    }
+
+    @Test
+    void accessorsAreInsertedBehindTheFields() {
+        String source = "import io.github.mletkin.numerobis.annotation.*;\n\n" //
+                + "@GenerateAccessors\n" //
+                + "public class Foo {\n" //
+                + "\tint   x ; // odd layout\n\n" //
+                + "\t/* kept */ Foo() {}\n" //
+                + "}\n";
+        CompilationUnit unit = StaticJavaParser.parse(source);
+        SourcePatch patch = new SourcePatch(unit, source);
+
+        facade.withAccessors(unit, "Foo");
+
+        assertThat(patch.prepare(sorter)).isTrue();
+        assertThat(patch.isChanged()).isTrue();
+        assertThat(patch.print()).isEqualTo("import io.github.mletkin.numerobis.annotation.*;\n\n" //
+                + "@GenerateAccessors\n" //
+                + "public class Foo {\n" //
+                + "\tint   x ; // odd layout\n\n" //
+                + "\t/* kept */ Foo() {}\n" //
+                + "\n" //
+                + "\tpublic int x() {\n" //
+                + "\t    return x;\n" //
+                + "\t}\n" //
+                + "}\n");
+    }
+
+    @Test
+    void embeddedBuilderIsInserted() {
+        String source = "package foo;\n\n" //
+                + "import io.github.mletkin.numerobis.annotation.GenerateBuilder;\n\n" //
+                + "@GenerateBuilder\n" //
+                + "public class Foo {\n" //
+                + "    int x;\n" //
+                + "}\n";
+        CompilationUnit unit = StaticJavaParser.parse(source);
+        SourcePatch patch = new SourcePatch(unit, source);
+
+        facade.withConstructors(unit, "Foo");
+
+        assertThat(patch.prepare(sorter)).isTrue();
+        String result = patch.print();
+        assertThat(result).startsWith("package foo;\n\n" //
+                + "import io.github.mletkin.numerobis.annotation.GenerateBuilder;\n\n" //
+                + "public class Foo {\n" //
+                + "    int x;\n\n" //
+                + "    public static class Builder {\n\n" //
+                + "        private Foo product;\n");
+        assertThat(StaticJavaParser.parse(result).toString()).isEqualTo(unit.toString());
+    }
+
+    @Test
+    void lineSeparatorIsKept() {
+        String source = "@GenerateAccessors\r\npublic class Foo {\r\n  int x;\r\n}\r\n";
+        CompilationUnit unit = StaticJavaParser.parse(source);
+        SourcePatch patch = new SourcePatch(unit, source);
+
+        facade.withAccessors(unit, "Foo");
+
+        assertThat(patch.prepare(sorter)).isTrue();
+        assertThat(patch.print()).isEqualTo("@GenerateAccessors\r\npublic class Foo {\r\n  int x;\r\n\r\n" //
+                + "  public int x() {\r\n      return x;\r\n  }\r\n}\r\n");
+    }
+
+    @Test
+    void unitWithoutMembersIsNotPatched() {
+        String source = "@GenerateBuilder public class Foo {}";
+        CompilationUnit unit = StaticJavaParser.parse(source);
+        SourcePatch patch = new SourcePatch(unit, source);
+
+        facade.withConstructors(unit, "Foo");
+
+        assertThat(patch.prepare(sorter)).isFalse();
+    }
+}
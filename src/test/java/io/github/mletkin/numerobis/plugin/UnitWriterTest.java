@@ -0,0 +1,109 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+
+class UnitWriterTest {
+
+    private static final String CONTENT = "class \u00c4 { String s = \"\u20ac\"; }";
+
+    @TempDir
+    Path dir;
+
+    private UnitWriter writer = new UnitWriter(StandardCharsets.UTF_8);
+
+    @Test
+    void unitIsPrintedLikeToString() {
+        CompilationUnit unit = StaticJavaParser.parse("/** doc */ class A { int x; /* c */ void f() {} }");
+
+        assertThat(writer.print(unit)).isEqualTo(unit.toString());
+    }
+
+    @Test
+    void contentIsWrittenWithTheCharset() throws IOException {
+        Path file = dir.resolve("A.java");
+
+        long bytes = new UnitWriter(StandardCharsets.ISO_8859_1).write(file, "\u00e4\u00f6\u00fc");
+
+        assertThat(Files.readAllBytes(file)).isEqualTo("\u00e4\u00f6\u00fc".getBytes(StandardCharsets.ISO_8859_1));
+        assertThat(bytes).isEqualTo(3);
+    }
+
+    @Test
+    void unmappableCharactersAreReplaced() throws IOException {
+        Path file = dir.resolve("A.java");
+
+        new UnitWriter(StandardCharsets.US_ASCII).write(file, "a\u20acb");
+
+        assertThat(Files.readAllBytes(file)).isEqualTo("a?b".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void existingFileIsTruncated() throws IOException {
+        Path file = Files.write(dir.resolve("A.java"), "a much longer old content".getBytes());
+
+        writer.write(file, "new");
+
+        assertThat(Files.readAllBytes(file)).isEqualTo("new".getBytes());
+    }
+
+    @Test
+    void writtenContentIsRecognized() throws IOException {
+        Path file = dir.resolve("A.java");
+        writer.write(file, CONTENT);
+
+        assertThat(writer.hasContent(file, CONTENT)).isTrue();
+    }
+
+    @Test
+    void contentLongerThanTheBufferIsCompared() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int n = 0; n < 5000; n++) {
+            content.append(CONTENT).append('\n');
+        }
+        Path file = dir.resolve("A.java");
+        writer.write(file, content.toString());
+
+        assertThat(writer.hasContent(file, content.toString())).isTrue();
+        assertThat(writer.hasContent(file, content.toString() + " ")).isFalse();
+        assertThat(writer.hasContent(file, content.substring(1))).isFalse();
+        assertThat(writer.hasContent(file, content.substring(0, content.length() - 1))).isFalse();
+    }
+
+    @Test
+    void contentInAnotherEncodingDiffers() throws IOException {
+        Path file = Files.write(dir.resolve("A.java"), CONTENT.getBytes(StandardCharsets.ISO_8859_1));
+
+        assertThat(writer.hasContent(file, "class \u00c4 { String s = \"?\"; }")).isFalse();
+    }
+
+    @Test
+    void missingFileHasNoContent() throws IOException {
+        assertThat(writer.hasContent(dir.resolve("A.java"), "")).isFalse();
+    }
+}
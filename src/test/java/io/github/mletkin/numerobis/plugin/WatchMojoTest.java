@@ -0,0 +1,130 @@
+/**
+ * (c) 2019 by Ullrich Rieger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mletkin.numerobis.plugin;
+
+import static io.github.mletkin.numerobis.plugin.BuilderMojoTest.configure;
+import static io.github.mletkin.numerobis.plugin.BuilderMojoTest.write;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WatchMojoTest {
+
+    @TempDir
+    Path dir;
+
+    private Path src;
+    private Path foo;
+    private Path builder;
+    private WatchMojo mojo;
+
+    @BeforeEach
+    void generateAll() throws Exception {
+        src = Files.createDirectories(dir.resolve("src"));
+        foo = write(src.resolve("Foo.java"), "@GenerateBuilder public class Foo { int x; }");
+        builder = src.resolve("FooBuilder.java");
+        mojo = configure(new WatchMojo(), src, dir.resolve("target"));
+        mojo.generateAll(getClass().getClassLoader());
+    }
+
+    @Test
+    void changedProductIsProcessed() throws Exception {
+        write(foo, "@GenerateBuilder public class Foo { int x; int y; }");
+
+        mojo.processChanges(changed(foo));
+
+        assertThat(new String(Files.readAllBytes(builder))).contains("withY");
+        assertThat(mojo.processor().metrics().entries()).hasSize(1);
+    }
+
+    @Test
+    void generatedFilesAreIgnored() {
+        Metrics before = mojo.processor().metrics();
+        mojo.processChanges(changed(foo, builder));
+
+        assertThat(mojo.processor().metrics()).isSameAs(before);
+    }
+
+    @Test
+    void editWithinTheSameTimeResolutionIsProcessed() throws Exception {
+        FileTime written = Files.getLastModifiedTime(foo);
+        write(foo, "@GenerateBuilder public class Foo { int x; int z; }");
+        Files.setLastModifiedTime(foo, written);
+
+        mojo.processChanges(changed(foo));
+
+        assertThat(new String(Files.readAllBytes(builder))).contains("withZ");
+    }
+
+    @Test
+    void unselectedFilesAreIgnored() throws Exception {
+        Path notes = write(src.resolve("notes.txt"), "@GenerateBuilder");
+        Path outside = write(dir.resolve("Bar.java"), "@GenerateBuilder public class Bar { int x; }");
+
+        Metrics before = mojo.processor().metrics();
+        mojo.processChanges(changed(notes, outside));
+
+        assertThat(mojo.processor().metrics()).isSameAs(before);
+        assertThat(dir.resolve("BarBuilder.java")).doesNotExist();
+    }
+
+    @Test
+    void newTypeIsIndexed() throws Exception {
+        Path lines = write(src.resolve("Lines.java"),
+                "import java.util.ArrayList; public class Lines extends ArrayList<String> { }");
+        write(foo, "@GenerateBuilder public class Foo { @GenerateAdder Lines lines; }");
+
+        mojo.processChanges(changed(lines, foo));
+
+        assertThat(new String(Files.readAllBytes(builder))).contains("addLine(");
+    }
+
+    @Test
+    void productOfChangedFieldTypeIsProcessed() throws Exception {
+        Path lines = write(src.resolve("Lines.java"), "public class Lines { }");
+        write(foo, "@GenerateBuilder public class Foo { @GenerateAdder Lines lines; }");
+        mojo.processChanges(changed(lines, foo));
+        assertThat(new String(Files.readAllBytes(builder))).doesNotContain("addLine(");
+
+        write(lines, "import java.util.ArrayList; public class Lines extends ArrayList<String> { }");
+        mojo.processChanges(changed(lines));
+
+        assertThat(new String(Files.readAllBytes(builder))).contains("addLine(");
+    }
+
+    @Test
+    void measurementsAreResetForEachBatch() throws Exception {
+        write(foo, "@GenerateBuilder public class Foo { int x; int y; }");
+        mojo.processChanges(changed(foo));
+        write(foo, "@GenerateBuilder public class Foo { int x; int z; }");
+        mojo.processChanges(changed(foo));
+
+        assertThat(mojo.processor().metrics().entries()).hasSize(1);
+        assertThat(mojo.processor().writtenFiles() + mojo.processor().unchangedFiles()).isEqualTo(2);
+    }
+
+    private static HashSet<Path> changed(Path... paths) {
+        return new HashSet<>(Arrays.asList(paths));
+    }
+}
@@ -0,0 +1,64 @@
+package io.github.mletkin.numerobis.sample;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import io.github.mletkin.numerobis.annotation.GenerateAccessors;
+import io.github.mletkin.numerobis.annotation.GenerateAdder;
+import io.github.mletkin.numerobis.annotation.GenerateBuilder;
+import io.github.mletkin.numerobis.annotation.GenerateListMutator;
+import io.github.mletkin.numerobis.annotation.Ignore;
+
+@GenerateBuilder
+@GenerateAccessors
+public class AllocationProduct {
+
+    int field0;
+    long field1;
+    String field2;
+    boolean field3;
+    double field4;
+    int field5;
+    long field6;
+    String field7;
+    boolean field8;
+    double field9;
+    int field10;
+    long field11;
+    String field12;
+    boolean field13;
+    double field14;
+    int field15;
+    long field16;
+    String field17;
+    boolean field18;
+    double field19;
+
+    @GenerateListMutator(variants = { GenerateListMutator.Variant.OBJECT, GenerateListMutator.Variant.STREAM })
+    List<String> names = new ArrayList<>();
+
+    @GenerateAdder(variants = { GenerateAdder.Variant.ITEM, GenerateAdder.Variant.COLLECTION })
+    Set<Integer> numbers;
+
+    List<String> tags;
+
+    @Ignore
+    String ignored;
+
+    public AllocationProduct() {
+    }
+
+    public AllocationProduct(int field0) {
+        this.field0 = field0;
+    }
+
+    public AllocationProduct(int field0, String field2) {
+        this.field0 = field0;
+        this.field2 = field2;
+    }
+
+    String field2() {
+        return field2;
+    }
+}